@@ -0,0 +1,174 @@
+package com.voicetel.phone;
+
+import android.net.Uri;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import android.webkit.WebView;
+import androidx.webkit.WebMessageCompat;
+import androidx.webkit.WebMessagePortCompat;
+import androidx.webkit.WebViewCompat;
+import androidx.webkit.WebViewFeature;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary transport for recording payloads between JS and Java over a
+ * WebMessagePort, so audio crosses as raw ArrayBuffers instead of base64
+ * strings inside Capacitor JSON.
+ *
+ * Request frame (big-endian):
+ *   u8 op | u32 requestId | u16 len + UTF-8 filename | u16 len + UTF-8 mimeType | payload
+ * Response frame:
+ *   u8 op | u32 requestId | u16 len + UTF-8 text | payload
+ *
+ * Save responses carry the file path as text, read responses the MIME type
+ * and file bytes, errors the message.
+ */
+public class AudioMessageChannel {
+    private static final String TAG = "AudioMessageChannel";
+    private static final String PORT_MESSAGE = "voicetel-audio-port";
+
+    static final byte OP_SAVE = 0x01;
+    static final byte OP_READ = 0x02;
+    static final byte OP_SAVE_OK = (byte) 0x81;
+    static final byte OP_READ_OK = (byte) 0x82;
+    static final byte OP_ERROR = (byte) 0xFF;
+
+    private final MainActivity activity;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private HandlerThread ioThread;
+    private Handler ioHandler;
+    private WebMessagePortCompat nativePort;
+
+    public AudioMessageChannel(MainActivity activity) {
+        this.activity = activity;
+    }
+
+    public static boolean isSupported() {
+        return WebViewFeature.isFeatureSupported(WebViewFeature.CREATE_WEB_MESSAGE_CHANNEL)
+            && WebViewFeature.isFeatureSupported(WebViewFeature.POST_WEB_MESSAGE)
+            && WebViewFeature.isFeatureSupported(WebViewFeature.WEB_MESSAGE_PORT_SET_MESSAGE_CALLBACK)
+            && WebViewFeature.isFeatureSupported(WebViewFeature.WEB_MESSAGE_PORT_POST_MESSAGE)
+            && WebViewFeature.isFeatureSupported(WebViewFeature.WEB_MESSAGE_ARRAY_BUFFER);
+    }
+
+    /**
+     * Creates a fresh channel and transfers one end to the page, which
+     * receives it as a window "message" event with data "voicetel-audio-port".
+     * Must be called on the main thread.
+     */
+    public void open(WebView webView, String origin) {
+        close();
+
+        ioThread = new HandlerThread("VoiceTel-AudioPort");
+        ioThread.start();
+        ioHandler = new Handler(ioThread.getLooper());
+
+        WebMessagePortCompat[] ports = WebViewCompat.createWebMessageChannel(webView);
+        nativePort = ports[0];
+        nativePort.setWebMessageCallback(ioHandler, new WebMessagePortCompat.WebMessageCallbackCompat() {
+            @Override
+            public void onMessage(WebMessagePortCompat port, WebMessageCompat message) {
+                if (message != null && message.getType() == WebMessageCompat.TYPE_ARRAY_BUFFER) {
+                    handleRequest(message.getArrayBuffer());
+                }
+            }
+        });
+
+        WebViewCompat.postWebMessage(
+            webView,
+            new WebMessageCompat(PORT_MESSAGE, new WebMessagePortCompat[]{ports[1]}),
+            // Only the app's own page may receive the port, never a navigated-to origin
+            Uri.parse(origin)
+        );
+        Log.d(TAG, "Audio message channel opened");
+    }
+
+    public void close() {
+        if (nativePort != null) {
+            nativePort.close();
+            nativePort = null;
+        }
+        if (ioThread != null) {
+            ioThread.quitSafely();
+            ioThread = null;
+            ioHandler = null;
+        }
+    }
+
+    private void handleRequest(byte[] frame) {
+        int requestId = 0;
+        try {
+            ByteBuffer in = ByteBuffer.wrap(frame);
+            byte op = in.get();
+            requestId = in.getInt();
+            String filename = readString(in);
+            String mimeType = readString(in);
+
+            long started = SystemClock.elapsedRealtimeNanos();
+            if (op == OP_SAVE) {
+                byte[] payload = new byte[in.remaining()];
+                in.get(payload);
+                String path = activity.writeRecordingBytes(filename, payload);
+                activity.getWaveformCache().schedule(filename);
+                logThroughput("save", payload.length, started);
+                reply(OP_SAVE_OK, requestId, path);
+            } else if (op == OP_READ) {
+                // The file is read straight into the response frame, after the header
+                byte[] text = MainActivity.getRecordingMimeType(filename).getBytes(StandardCharsets.UTF_8);
+                int headerLength = headerLength(text);
+                byte[] reply = activity.readRecordingBytes(filename, headerLength);
+                writeHeader(ByteBuffer.wrap(reply), OP_READ_OK, requestId, text);
+                logThroughput("read", reply.length - headerLength, started);
+                post(reply);
+            } else {
+                reply(OP_ERROR, requestId, "Unknown op: " + op);
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Audio channel request failed", e);
+            reply(OP_ERROR, requestId, String.valueOf(e.getMessage()));
+        }
+    }
+
+    private void reply(byte op, int requestId, String text) {
+        byte[] textBytes = text.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer out = ByteBuffer.allocate(headerLength(textBytes));
+        writeHeader(out, op, requestId, textBytes);
+        post(out.array());
+    }
+
+    private static int headerLength(byte[] text) {
+        return 1 + 4 + 2 + text.length;
+    }
+
+    private static void writeHeader(ByteBuffer out, byte op, int requestId, byte[] text) {
+        out.put(op);
+        out.putInt(requestId);
+        out.putShort((short) text.length);
+        out.put(text);
+    }
+
+    private void post(byte[] frame) {
+        mainHandler.post(() -> {
+            if (nativePort != null) {
+                nativePort.postMessage(new WebMessageCompat(frame));
+            }
+        });
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getShort() & 0xFFFF;
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void logThroughput(String op, int bytes, long startedNanos) {
+        double ms = (SystemClock.elapsedRealtimeNanos() - startedNanos) / 1e6;
+        double mbPerSec = ms > 0 ? (bytes / (1024.0 * 1024.0)) / (ms / 1000.0) : 0;
+        Log.d(TAG, String.format("Binary %s: %d bytes in %.1fms (%.1f MB/s)", op, bytes, ms, mbPerSec));
+    }
+}
@@ -0,0 +1,103 @@
+package com.voicetel.phone;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+import android.util.Log;
+
+/**
+ * Handles notification actions that don't need UI (Hang Up, Mute, Hold,
+ * Decline) without bringing MainActivity to the front. Forwards the action
+ * to JavaScript and, once it has been delivered, updates the foreground
+ * service's notification directly.
+ */
+public class CallActionReceiver extends BroadcastReceiver {
+    private static final String TAG = "CallActionReceiver";
+
+    public static final String ACTION_DECLINE = "com.voicetel.phone.DECLINE_CALL";
+    public static final String ACTION_HANGUP = "com.voicetel.phone.HANGUP";
+    public static final String ACTION_MUTE = "com.voicetel.phone.MUTE";
+    public static final String ACTION_UNMUTE = "com.voicetel.phone.UNMUTE";
+    public static final String ACTION_HOLD = "com.voicetel.phone.HOLD";
+    public static final String ACTION_UNHOLD = "com.voicetel.phone.UNHOLD";
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        String action = intent.getAction();
+        if (action == null) {
+            return;
+        }
+        Log.d(TAG, "Notification action received: " + action);
+
+        String jsAction;
+        // Notification state to flip once JS has the action (mute/hold only)
+        String serviceExtra = null;
+        boolean serviceValue = false;
+        switch (action) {
+            case ACTION_DECLINE:
+                jsAction = "DECLINE_CALL";
+                dismissIncomingCallNotification(context);
+                // Page may still be loading after a cold start; JS rejects the INVITE when it arrives
+                PendingIncomingCall.markDeclined();
+                break;
+            case ACTION_HANGUP:
+                jsAction = "HANGUP";
+                break;
+            case ACTION_MUTE:
+                jsAction = "MUTE_CALL";
+                serviceExtra = "isMuted";
+                serviceValue = true;
+                break;
+            case ACTION_UNMUTE:
+                jsAction = "UNMUTE_CALL";
+                serviceExtra = "isMuted";
+                break;
+            case ACTION_HOLD:
+                jsAction = "HOLD_CALL";
+                serviceExtra = "isOnHold";
+                serviceValue = true;
+                break;
+            case ACTION_UNHOLD:
+                jsAction = "UNHOLD_CALL";
+                serviceExtra = "isOnHold";
+                break;
+            default:
+                Log.w(TAG, "Unknown notification action: " + action);
+                return;
+        }
+
+        boolean delivered = CallServicePlugin.dispatchNotificationAction(jsAction, null);
+        if (delivered) {
+            if (serviceExtra != null) {
+                updateService(context, serviceExtra, serviceValue);
+            }
+        } else if (ACTION_HANGUP.equals(action)) {
+            // No JS to tear down the SIP session - at least don't leave the call UI stuck
+            Log.w(TAG, "JavaScript not available, stopping call service directly");
+            context.stopService(new Intent(context, CallForegroundService.class));
+        } else if (serviceExtra != null) {
+            // Nothing changed the media state, so the notification must not claim it did
+            Log.w(TAG, "JavaScript not available, ignoring " + jsAction);
+        }
+    }
+
+    private void updateService(Context context, String extra, boolean value) {
+        // Flip the notification immediately; JS confirms with the same value via the plugin
+        Intent serviceIntent = new Intent(context, CallForegroundService.class);
+        serviceIntent.putExtra(extra, value);
+        try {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+                context.startForegroundService(serviceIntent);
+            } else {
+                context.startService(serviceIntent);
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to update call service from notification action", e);
+        }
+    }
+
+    private void dismissIncomingCallNotification(Context context) {
+        IncomingCallNotifier.dismiss(context);
+    }
+}
@@ -0,0 +1,91 @@
+package com.voicetel.phone;
+
+import android.os.SystemClock;
+
+/**
+ * The single source of truth for call duration. Based on
+ * SystemClock.elapsedRealtime(), so wall-clock changes and deep sleep don't
+ * skew it. Time spent on hold is optionally excluded.
+ */
+public final class CallClock {
+    private static boolean excludeHoldTime;
+    private static long connectedAt;   // elapsedRealtime when connected, 0 if not running
+    private static long heldSince;     // elapsedRealtime when hold began, 0 if not held
+    private static long heldTotalMs;   // completed hold time, only tracked when excluding hold
+
+    private CallClock() {
+    }
+
+    public static synchronized void setExcludeHoldTime(boolean exclude) {
+        excludeHoldTime = exclude;
+    }
+
+    /**
+     * Starts the clock when the call connects. Does nothing if already running.
+     */
+    public static synchronized void start() {
+        if (connectedAt != 0) {
+            return;
+        }
+        connectedAt = SystemClock.elapsedRealtime();
+        heldSince = 0;
+        heldTotalMs = 0;
+    }
+
+    public static synchronized void setHeld(boolean held) {
+        if (connectedAt == 0 || !excludeHoldTime) {
+            return;
+        }
+        long now = SystemClock.elapsedRealtime();
+        if (held && heldSince == 0) {
+            heldSince = now;
+        } else if (!held && heldSince != 0) {
+            heldTotalMs += now - heldSince;
+            heldSince = 0;
+        }
+    }
+
+    public static synchronized void reset() {
+        connectedAt = 0;
+        heldSince = 0;
+        heldTotalMs = 0;
+        excludeHoldTime = false;
+    }
+
+    public static synchronized boolean isRunning() {
+        return connectedAt != 0;
+    }
+
+    /**
+     * True while the clock is stopped for hold (only when excluding hold time).
+     */
+    public static synchronized boolean isPaused() {
+        return heldSince != 0;
+    }
+
+    public static synchronized long getElapsedMs() {
+        if (connectedAt == 0) {
+            return 0;
+        }
+        long end = heldSince != 0 ? heldSince : SystemClock.elapsedRealtime();
+        return end - connectedAt - heldTotalMs;
+    }
+
+    /**
+     * Wall-clock time the call would have started at for the current elapsed
+     * duration; what Notification.setWhen needs for a chronometer.
+     */
+    public static long getChronometerWhen() {
+        return System.currentTimeMillis() - getElapsedMs();
+    }
+
+    public static String format(long elapsedMs) {
+        long duration = elapsedMs / 1000;
+        long hours = duration / 3600;
+        long minutes = (duration % 3600) / 60;
+        long seconds = duration % 60;
+        return hours > 0
+            ? String.format("%d:%02d:%02d", hours, minutes, seconds)
+            : String.format("%02d:%02d", minutes, seconds);
+    }
+}
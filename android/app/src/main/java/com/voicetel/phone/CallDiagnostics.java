@@ -0,0 +1,281 @@
+package com.voicetel.phone;
+
+import android.os.Build;
+import android.os.Process;
+import android.os.SystemClock;
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Always-on, allocation-free (after warm-up) runtime counters for the
+ * native call layer. Exposed through CallServicePlugin.getDiagnostics and
+ * CallForegroundService.dump (adb shell dumpsys activity service
+ * com.voicetel.phone/.CallForegroundService).
+ */
+public final class CallDiagnostics {
+    // Bridge latency buckets are powers of two in microseconds: <2^6us ... <2^21us (~2s), then overflow
+    private static final int FIRST_BUCKET_SHIFT = 6;
+    private static final int BUCKET_COUNT = 17;
+
+    private static final ConcurrentHashMap<String, LatencyHistogram> bridgeLatency = new ConcurrentHashMap<>();
+
+    private static final AtomicLong callsStarted = new AtomicLong();
+    private static final AtomicLong notificationPostsTotal = new AtomicLong();
+    private static final AtomicLong notificationPostsCurrentCall = new AtomicLong();
+    private static final AtomicLong notificationPostsMaxPerCall = new AtomicLong();
+
+    private static final AtomicLong wakeLockAcquisitions = new AtomicLong();
+    private static final AtomicLong wakeLockHeldMs = new AtomicLong();
+    private static final AtomicLong wakeLockHeldSince = new AtomicLong();
+
+    private static final AtomicLong audioFocusLosses = new AtomicLong();
+
+    private static final AtomicLong recordingBytesWritten = new AtomicLong();
+    private static final AtomicLong recordingWriteNanos = new AtomicLong();
+    private static final AtomicLong recordingBytesRead = new AtomicLong();
+    private static final AtomicLong recordingReadNanos = new AtomicLong();
+
+    private static final AtomicLong activityCreateMs = new AtomicLong(-1);
+
+    private static final AtomicLong qualitySamples = new AtomicLong();
+    private static final AtomicLong qualityIngestNanos = new AtomicLong();
+
+    private static final AtomicLong incomingCallsRung = new AtomicLong();
+    private static final AtomicLong lastTimeToRingMs = new AtomicLong(-1);
+    private static final AtomicLong lastProcessStartToRingMs = new AtomicLong(-1);
+
+    private CallDiagnostics() {
+    }
+
+    public static long now() {
+        return SystemClock.elapsedRealtimeNanos();
+    }
+
+    public static void recordBridgeCall(String method, long startedNanos) {
+        LatencyHistogram histogram = bridgeLatency.get(method);
+        if (histogram == null) {
+            histogram = new LatencyHistogram();
+            LatencyHistogram existing = bridgeLatency.putIfAbsent(method, histogram);
+            if (existing != null) {
+                histogram = existing;
+            }
+        }
+        histogram.record((now() - startedNanos) / 1000);
+    }
+
+    public static void callStarted() {
+        callsStarted.incrementAndGet();
+        notificationPostsCurrentCall.set(0);
+    }
+
+    public static void notificationPosted() {
+        notificationPostsTotal.incrementAndGet();
+        long current = notificationPostsCurrentCall.incrementAndGet();
+        long max;
+        while (current > (max = notificationPostsMaxPerCall.get())) {
+            if (notificationPostsMaxPerCall.compareAndSet(max, current)) {
+                break;
+            }
+        }
+    }
+
+    public static void wakeLockAcquired() {
+        wakeLockAcquisitions.incrementAndGet();
+        wakeLockHeldSince.compareAndSet(0, SystemClock.elapsedRealtime());
+    }
+
+    public static void wakeLockReleased() {
+        long since = wakeLockHeldSince.getAndSet(0);
+        if (since > 0) {
+            wakeLockHeldMs.addAndGet(SystemClock.elapsedRealtime() - since);
+        }
+    }
+
+    public static void audioFocusLost() {
+        audioFocusLosses.incrementAndGet();
+    }
+
+    public static void recordingWritten(long bytes, long startedNanos) {
+        recordingBytesWritten.addAndGet(bytes);
+        recordingWriteNanos.addAndGet(now() - startedNanos);
+    }
+
+    public static void recordingRead(long bytes, long startedNanos) {
+        recordingBytesRead.addAndGet(bytes);
+        recordingReadNanos.addAndGet(now() - startedNanos);
+    }
+
+    public static void qualitySamplesIngested(int samples, long startedNanos) {
+        qualitySamples.addAndGet(samples);
+        qualityIngestNanos.addAndGet(now() - startedNanos);
+    }
+
+    public static void activityCreated(long startedNanos) {
+        activityCreateMs.set((now() - startedNanos) / 1000000);
+    }
+
+    /**
+     * Records how long a natively triggered incoming call took to reach the
+     * notification, and how long since the process started (the cold-start
+     * cost when the trigger woke a dead process).
+     */
+    public static void incomingCallRung(long triggeredElapsedMs) {
+        long rungAt = SystemClock.elapsedRealtime();
+        incomingCallsRung.incrementAndGet();
+        lastTimeToRingMs.set(rungAt - triggeredElapsedMs);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            lastProcessStartToRingMs.set(rungAt - Process.getStartElapsedRealtime());
+        }
+    }
+
+    public static JSONObject toJson() throws JSONException {
+        JSONObject json = new JSONObject();
+
+        JSONObject bridge = new JSONObject();
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(bridgeLatency).entrySet()) {
+            bridge.put(entry.getKey(), entry.getValue().toJson());
+        }
+        json.put("bridgeLatency", bridge);
+
+        JSONObject notifications = new JSONObject();
+        notifications.put("callsStarted", callsStarted.get());
+        notifications.put("postsTotal", notificationPostsTotal.get());
+        notifications.put("postsCurrentCall", notificationPostsCurrentCall.get());
+        notifications.put("postsMaxPerCall", notificationPostsMaxPerCall.get());
+        json.put("notifications", notifications);
+
+        JSONObject wakeLock = new JSONObject();
+        wakeLock.put("acquisitions", wakeLockAcquisitions.get());
+        wakeLock.put("heldMs", currentWakeLockHeldMs());
+        wakeLock.put("held", wakeLockHeldSince.get() > 0);
+        json.put("wakeLock", wakeLock);
+
+        json.put("audioFocusLosses", audioFocusLosses.get());
+
+        JSONObject recording = new JSONObject();
+        recording.put("bytesWritten", recordingBytesWritten.get());
+        recording.put("writeMs", recordingWriteNanos.get() / 1000000);
+        recording.put("bytesRead", recordingBytesRead.get());
+        recording.put("readMs", recordingReadNanos.get() / 1000000);
+        json.put("recording", recording);
+
+        JSONObject quality = new JSONObject();
+        long samples = qualitySamples.get();
+        quality.put("samples", samples);
+        quality.put("nanosPerSample", samples > 0 ? qualityIngestNanos.get() / samples : 0);
+        json.put("callQuality", quality);
+
+        json.put("activityCreateMs", activityCreateMs.get());
+
+        JSONObject incoming = new JSONObject();
+        incoming.put("rung", incomingCallsRung.get());
+        incoming.put("lastTimeToRingMs", lastTimeToRingMs.get());
+        incoming.put("lastProcessStartToRingMs", lastProcessStartToRingMs.get());
+        json.put("incomingCalls", incoming);
+        return json;
+    }
+
+    public static void dump(PrintWriter writer) {
+        writer.println("VoiceTel call diagnostics:");
+        writer.println("  activityCreateMs=" + activityCreateMs.get());
+        writer.println("  calls: started=" + callsStarted.get());
+        writer.println("  notifications: total=" + notificationPostsTotal.get()
+            + " currentCall=" + notificationPostsCurrentCall.get()
+            + " maxPerCall=" + notificationPostsMaxPerCall.get());
+        writer.println("  wakeLock: acquisitions=" + wakeLockAcquisitions.get()
+            + " heldMs=" + currentWakeLockHeldMs()
+            + " held=" + (wakeLockHeldSince.get() > 0));
+        writer.println("  audioFocusLosses=" + audioFocusLosses.get());
+        writer.println("  incomingCalls: rung=" + incomingCallsRung.get()
+            + " lastTimeToRingMs=" + lastTimeToRingMs.get()
+            + " lastProcessStartToRingMs=" + lastProcessStartToRingMs.get());
+        writer.println("  recording: bytesWritten=" + recordingBytesWritten.get()
+            + " writeMs=" + recordingWriteNanos.get() / 1000000
+            + " bytesRead=" + recordingBytesRead.get()
+            + " readMs=" + recordingReadNanos.get() / 1000000);
+        long samples = qualitySamples.get();
+        writer.println("  callQuality: samples=" + samples
+            + " nanosPerSample=" + (samples > 0 ? qualityIngestNanos.get() / samples : 0));
+        writer.println("  bridge latency (us):");
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(bridgeLatency).entrySet()) {
+            writer.println("    " + entry.getKey() + ": " + entry.getValue());
+        }
+    }
+
+    private static long currentWakeLockHeldMs() {
+        long since = wakeLockHeldSince.get();
+        long held = wakeLockHeldMs.get();
+        return since > 0 ? held + (SystemClock.elapsedRealtime() - since) : held;
+    }
+
+    private static final class LatencyHistogram {
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalMicros = new AtomicLong();
+        private final AtomicLong maxMicros = new AtomicLong();
+
+        void record(long micros) {
+            int bucket = 0;
+            long bound = 1L << FIRST_BUCKET_SHIFT;
+            while (bucket < BUCKET_COUNT - 1 && micros >= bound) {
+                bucket++;
+                bound <<= 1;
+            }
+            buckets.incrementAndGet(bucket);
+            count.incrementAndGet();
+            totalMicros.addAndGet(micros);
+
+            long max;
+            while (micros > (max = maxMicros.get())) {
+                if (maxMicros.compareAndSet(max, micros)) {
+                    break;
+                }
+            }
+        }
+
+        JSONObject toJson() throws JSONException {
+            long n = count.get();
+            JSONObject json = new JSONObject();
+            json.put("count", n);
+            json.put("meanUs", n > 0 ? totalMicros.get() / n : 0);
+            json.put("maxUs", maxMicros.get());
+
+            // Upper bound (us) of each bucket; the last bucket is open-ended
+            JSONArray upperBounds = new JSONArray();
+            JSONArray counts = new JSONArray();
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                upperBounds.put(i < BUCKET_COUNT - 1 ? 1L << (FIRST_BUCKET_SHIFT + i) : -1);
+                counts.put(buckets.get(i));
+            }
+            json.put("bucketUpperUs", upperBounds);
+            json.put("bucketCounts", counts);
+            return json;
+        }
+
+        @Override
+        public String toString() {
+            long n = count.get();
+            StringBuilder text = new StringBuilder();
+            text.append("count=").append(n)
+                .append(" mean=").append(n > 0 ? totalMicros.get() / n : 0)
+                .append(" max=").append(maxMicros.get())
+                .append(" buckets=[");
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                long bucketCount = buckets.get(i);
+                if (bucketCount == 0) {
+                    continue;
+                }
+                text.append(i < BUCKET_COUNT - 1 ? "<" + (1L << (FIRST_BUCKET_SHIFT + i)) : ">=" + (1L << (FIRST_BUCKET_SHIFT + i - 1)))
+                    .append(':').append(bucketCount).append(' ');
+            }
+            return text.append(']').toString();
+        }
+    }
+}
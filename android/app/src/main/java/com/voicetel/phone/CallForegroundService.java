@@ -10,10 +10,15 @@ import android.content.Intent;
 import android.media.AudioManager;
 import android.os.Binder;
 import android.os.Build;
+import android.os.Handler;
 import android.os.IBinder;
+import android.os.Looper;
 import android.os.PowerManager;
 import android.util.Log;
+import androidx.annotation.VisibleForTesting;
 import androidx.core.app.NotificationCompat;
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
 
 public class CallForegroundService extends Service {
     private static final String TAG = "CallForegroundService";
@@ -29,25 +34,41 @@ public class CallForegroundService extends Service {
     private String callState = "dialing"; // dialing, ringing, connecting, connected, on_hold
     private boolean isMuted = false;
     private boolean isOnHold = false;
-    private long callStartTime = 0;
+    private boolean showPoorConnection = true;
+    private LinkQualityMonitor linkQualityMonitor;
+
+    // Process-wide, so a recreated MainActivity can tell a call is up
+    private static volatile boolean running;
 
     // Binder for clients to access the service
     public class LocalBinder extends Binder {
-        CallForegroundService getService() {
+        public CallForegroundService getService() {
             return CallForegroundService.this;
         }
     }
 
     private final IBinder binder = new LocalBinder();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
 
     @Override
     public void onCreate() {
         super.onCreate();
         Log.d(TAG, "Service created");
+        CallDiagnostics.callStarted();
+        // A call is now active; never let the incoming ringer overlap it
+        CallRinger.stop();
 
         // Create notification channel
         createNotificationChannel();
 
+        // Network sampling runs on its own thread; state changes come back to the main thread
+        linkQualityMonitor = new LinkQualityMonitor(this, sample -> mainHandler.post(() -> {
+            if (showPoorConnection) {
+                updateNotification();
+            }
+            CallServicePlugin.publishLinkQuality(sample);
+        }));
+
         // Initialize audio manager
         audioManager = (AudioManager) getSystemService(Context.AUDIO_SERVICE);
 
@@ -65,6 +86,7 @@ public class CallForegroundService extends Service {
                     case AudioManager.AUDIOFOCUS_LOSS_TRANSIENT_CAN_DUCK:
                         Log.d(TAG, "Audio focus lost: " + focusChange);
                         hasAudioFocus = false;
+                        CallDiagnostics.audioFocusLost();
                         break;
                 }
             }
@@ -75,18 +97,25 @@ public class CallForegroundService extends Service {
     public int onStartCommand(Intent intent, int flags, int startId) {
         Log.d(TAG, "Service started");
 
-        // Get call number and state from intent
+        // Get call number and state from intent; each update intent only
+        // carries the fields that changed, so keep the rest as they are
         if (intent != null) {
-            callNumber = intent.getStringExtra("callNumber");
-            if (callNumber == null) {
-                callNumber = "Active Call";
+            if (intent.hasExtra("callNumber")) {
+                callNumber = intent.getStringExtra("callNumber");
+                if (callNumber == null) {
+                    callNumber = "Active Call";
+                }
+            }
+
+            if (intent.hasExtra("excludeHoldTime")) {
+                CallClock.setExcludeHoldTime(intent.getBooleanExtra("excludeHoldTime", false));
             }
 
             String newState = intent.getStringExtra("callState");
             if (newState != null) {
                 callState = newState;
-                if ("connected".equals(newState) && callStartTime == 0) {
-                    callStartTime = System.currentTimeMillis();
+                if ("connected".equals(newState)) {
+                    CallClock.start();
                 }
             }
 
@@ -96,11 +125,17 @@ public class CallForegroundService extends Service {
 
             if (intent.hasExtra("isOnHold")) {
                 isOnHold = intent.getBooleanExtra("isOnHold", false);
+                CallClock.setHeld(isOnHold);
+            }
+
+            if (intent.hasExtra("showPoorConnection")) {
+                showPoorConnection = intent.getBooleanExtra("showPoorConnection", true);
             }
         }
 
         // Start foreground with notification
         startForeground(NOTIFICATION_ID, createNotification());
+        CallDiagnostics.notificationPosted();
 
         // Acquire wake lock
         acquireWakeLock();
@@ -109,6 +144,9 @@ public class CallForegroundService extends Service {
         requestAudioFocus();
 
         isCallActive = true;
+        running = true;
+        updateMediaExpected();
+        linkQualityMonitor.start();
 
         return START_STICKY; // Restart if killed
     }
@@ -123,7 +161,11 @@ public class CallForegroundService extends Service {
         // Abandon audio focus
         abandonAudioFocus();
 
+        linkQualityMonitor.stop();
+
         isCallActive = false;
+        running = false;
+        CallClock.reset();
 
         super.onDestroy();
     }
@@ -152,7 +194,9 @@ public class CallForegroundService extends Service {
         }
     }
 
-    private Notification createNotification() {
+    // Public for :microbenchmark, whose tests live in another package (com.voicetel.phone.microbenchmark)
+    @VisibleForTesting(otherwise = VisibleForTesting.PRIVATE)
+    public Notification createNotification() {
         // Create intent to open app when notification is tapped
         // Use SINGLE_TOP to bring existing activity to front instead of recreating it
         // This preserves JavaScript state and prevents unnecessary re-registration
@@ -166,35 +210,12 @@ public class CallForegroundService extends Service {
             PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT
         );
 
-        // Create hang up action
-        Intent hangupIntent = new Intent(this, MainActivity.class);
-        hangupIntent.setAction("com.voicetel.phone.HANGUP");
-        PendingIntent hangupPendingIntent = PendingIntent.getActivity(
-            this,
-            1,
-            hangupIntent,
-            PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT
-        );
-
-        // Create mute/unmute action
-        Intent muteIntent = new Intent(this, MainActivity.class);
-        muteIntent.setAction(isMuted ? "com.voicetel.phone.UNMUTE" : "com.voicetel.phone.MUTE");
-        PendingIntent mutePendingIntent = PendingIntent.getActivity(
-            this,
-            2,
-            muteIntent,
-            PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT
-        );
-
-        // Create hold/unhold action
-        Intent holdIntent = new Intent(this, MainActivity.class);
-        holdIntent.setAction(isOnHold ? "com.voicetel.phone.UNHOLD" : "com.voicetel.phone.HOLD");
-        PendingIntent holdPendingIntent = PendingIntent.getActivity(
-            this,
-            3,
-            holdIntent,
-            PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT
-        );
+        // Action buttons go through CallActionReceiver so they don't bring the activity forward
+        PendingIntent hangupPendingIntent = createActionIntent(CallActionReceiver.ACTION_HANGUP, 1);
+        PendingIntent mutePendingIntent = createActionIntent(
+            isMuted ? CallActionReceiver.ACTION_UNMUTE : CallActionReceiver.ACTION_MUTE, 2);
+        PendingIntent holdPendingIntent = createActionIntent(
+            isOnHold ? CallActionReceiver.ACTION_UNHOLD : CallActionReceiver.ACTION_HOLD, 3);
 
         // Build notification text based on state
         String contentText = buildNotificationText();
@@ -207,8 +228,16 @@ public class CallForegroundService extends Service {
             .setOngoing(true)
             .setCategory(NotificationCompat.CATEGORY_CALL)
             .setPriority(NotificationCompat.PRIORITY_LOW) // Low priority - no heads-up
-            .setForegroundServiceBehavior(NotificationCompat.FOREGROUND_SERVICE_IMMEDIATE)
-            .setShowWhen(false);
+            .setForegroundServiceBehavior(NotificationCompat.FOREGROUND_SERVICE_IMMEDIATE);
+
+        // Let the system render the running duration; no reposting every second
+        if ("connected".equals(callState) && CallClock.isRunning() && !CallClock.isPaused()) {
+            builder.setUsesChronometer(true)
+                .setWhen(CallClock.getChronometerWhen())
+                .setShowWhen(true);
+        } else {
+            builder.setShowWhen(false);
+        }
 
         // Add action buttons for connected calls
         if ("connected".equals(callState)) {
@@ -230,7 +259,19 @@ public class CallForegroundService extends Service {
         return builder.build();
     }
 
-    private String buildNotificationText() {
+    private PendingIntent createActionIntent(String action, int requestCode) {
+        Intent intent = new Intent(this, CallActionReceiver.class);
+        intent.setAction(action);
+        return PendingIntent.getBroadcast(
+            this,
+            requestCode,
+            intent,
+            PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT
+        );
+    }
+
+    @VisibleForTesting(otherwise = VisibleForTesting.PRIVATE)
+    public String buildNotificationText() {
         StringBuilder text = new StringBuilder();
 
         // Add number/name
@@ -249,13 +290,11 @@ public class CallForegroundService extends Service {
             if (text.length() > 0) text.append(" • ");
             text.append("Connecting...");
         } else if ("connected".equals(callState)) {
-            // Add call duration
-            if (callStartTime > 0) {
-                long duration = (System.currentTimeMillis() - callStartTime) / 1000;
-                long minutes = duration / 60;
-                long seconds = duration % 60;
+            // A running clock is shown by the notification chronometer; a
+            // paused one (hold excluded) can't be, so show it frozen here
+            if (CallClock.isPaused()) {
                 if (text.length() > 0) text.append(" • ");
-                text.append(String.format("%02d:%02d", minutes, seconds));
+                text.append(CallClock.format(CallClock.getElapsedMs()));
             }
 
             // Add mute/hold status
@@ -273,18 +312,30 @@ public class CallForegroundService extends Service {
             text.append("Active Call");
         }
 
+        if (showPoorConnection && linkQualityMonitor != null && linkQualityMonitor.isPoor()) {
+            text.append(" • Poor connection");
+        }
+
         return text.toString();
     }
 
     private void acquireWakeLock() {
         try {
-            PowerManager powerManager = (PowerManager) getSystemService(Context.POWER_SERVICE);
-            wakeLock = powerManager.newWakeLock(
-                PowerManager.PARTIAL_WAKE_LOCK,
-                "VoiceTel::CallWakeLock"
-            );
+            if (wakeLock == null) {
+                PowerManager powerManager = (PowerManager) getSystemService(Context.POWER_SERVICE);
+                wakeLock = powerManager.newWakeLock(
+                    PowerManager.PARTIAL_WAKE_LOCK,
+                    "VoiceTel::CallWakeLock"
+                );
+                // Every start command re-acquires; that should only extend the timeout, not stack locks
+                wakeLock.setReferenceCounted(false);
+            }
+            boolean wasHeld = wakeLock.isHeld();
             wakeLock.acquire(10 * 60 * 1000L /*10 minutes*/);
-            Log.d(TAG, "Wake lock acquired");
+            if (!wasHeld) {
+                CallDiagnostics.wakeLockAcquired();
+                Log.d(TAG, "Wake lock acquired");
+            }
         } catch (Exception e) {
             Log.e(TAG, "Failed to acquire wake lock", e);
         }
@@ -293,13 +344,14 @@ public class CallForegroundService extends Service {
     private void releaseWakeLock() {
         if (wakeLock != null && wakeLock.isHeld()) {
             wakeLock.release();
-            wakeLock = null;
+            CallDiagnostics.wakeLockReleased();
             Log.d(TAG, "Wake lock released");
         }
+        wakeLock = null;
     }
 
     private void requestAudioFocus() {
-        if (audioManager != null) {
+        if (audioManager != null && !hasAudioFocus) {
             int result = audioManager.requestAudioFocus(
                 audioFocusChangeListener,
                 AudioManager.STREAM_VOICE_CALL,
@@ -326,9 +378,10 @@ public class CallForegroundService extends Service {
 
     public void updateCallState(String state) {
         callState = state;
-        if ("connected".equals(state) && callStartTime == 0) {
-            callStartTime = System.currentTimeMillis();
+        if ("connected".equals(state)) {
+            CallClock.start();
         }
+        updateMediaExpected();
         updateNotification();
     }
 
@@ -339,14 +392,21 @@ public class CallForegroundService extends Service {
 
     public void updateHoldState(boolean onHold) {
         isOnHold = onHold;
+        CallClock.setHeld(onHold);
+        updateMediaExpected();
         updateNotification();
     }
 
+    private void updateMediaExpected() {
+        linkQualityMonitor.setMediaExpected("connected".equals(callState) && !isOnHold);
+    }
+
     private void updateNotification() {
         if (isCallActive) {
             NotificationManager notificationManager = getSystemService(NotificationManager.class);
             if (notificationManager != null) {
                 notificationManager.notify(NOTIFICATION_ID, createNotification());
+                CallDiagnostics.notificationPosted();
             }
         }
     }
@@ -354,4 +414,30 @@ public class CallForegroundService extends Service {
     public boolean isCallActive() {
         return isCallActive;
     }
+
+    /**
+     * True from the first start command until the service is destroyed.
+     */
+    public static boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    protected void dump(FileDescriptor fd, PrintWriter writer, String[] args) {
+        writer.println("CallForegroundService state:");
+        writer.println("  callState=" + callState + " isCallActive=" + isCallActive
+            + " isMuted=" + isMuted + " isOnHold=" + isOnHold);
+        writer.println("  callClock: running=" + CallClock.isRunning()
+            + " paused=" + CallClock.isPaused() + " elapsedMs=" + CallClock.getElapsedMs());
+        writer.println("  hasAudioFocus=" + hasAudioFocus
+            + " wakeLockHeld=" + (wakeLock != null && wakeLock.isHeld()));
+        LinkQualityMonitor.Sample link = linkQualityMonitor != null ? linkQualityMonitor.getLatest() : null;
+        if (link != null) {
+            writer.println("  link: transport=" + link.transport + " validated=" + link.validated
+                + " poor=" + link.poor + " reason=" + link.reason
+                + " down/upKbps=" + link.downstreamKbps + "/" + link.upstreamKbps
+                + " signal=" + link.signalStrength + " rx/txKbps=" + link.rxKbps + "/" + link.txKbps);
+        }
+        CallDiagnostics.dump(writer);
+    }
 }
@@ -0,0 +1,299 @@
+package com.voicetel.phone;
+
+import android.os.SystemClock;
+import android.util.Log;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Per-call WebRTC quality time series (RTT, jitter, packet loss, bitrate).
+ * Samples arrive from JS in batches and are kept in primitive arrays with a
+ * fixed capacity: when a series fills up, adjacent points are merged (2x
+ * downsampling) and later samples are averaged in groups of the new stride,
+ * so a call of any length stays bounded. Finished calls are written to
+ * files/call-quality/&lt;callId&gt;.cq. A series that stops receiving
+ * samples without being finished (page reload, WebView crash) is saved and
+ * dropped from memory once it has been idle for STALE_MS.
+ *
+ * Sample frames are flat: t (ms since call start), rttMs, jitterMs,
+ * lossPct, bitrateKbps.
+ */
+public class CallQualityStore {
+    private static final String TAG = "CallQualityStore";
+    private static final String DIR_NAME = "call-quality";
+    private static final String SUFFIX = ".cq";
+    private static final int MAGIC = 0x56544351; // "VTCQ"
+    private static final int VERSION = 1;
+    private static final int MAX_POINTS = 1024;
+    private static final int HEADER_BYTES = 4 + 1 + 4 + 4; // magic, version, stride, count
+    // Matches the history length kept by storage.js
+    private static final int MAX_FILES = 100;
+    // JS samples every 2s and flushes every ~30s, so this is many missed batches
+    private static final long STALE_MS = 5 * 60 * 1000;
+
+    public static final int FIELDS = 5;
+    private static final int POINT_BYTES = 4 * FIELDS;
+
+    private final File dir;
+    private final Map<String, Series> live = new HashMap<>();
+
+    public CallQualityStore(File filesDir) {
+        this.dir = new File(filesDir, DIR_NAME);
+    }
+
+    /**
+     * Appends a batch of flat sample frames. Returns the number of samples
+     * accepted (trailing partial frames are ignored).
+     */
+    public synchronized int append(String callId, double[] frames) {
+        long now = SystemClock.elapsedRealtime();
+        evictStale(callId, now);
+        Series series = live.get(callId);
+        if (series == null) {
+            series = new Series();
+            live.put(callId, series);
+        }
+        series.lastAppendedAt = now;
+        int samples = frames.length / FIELDS;
+        for (int i = 0; i < samples; i++) {
+            int base = i * FIELDS;
+            series.add(
+                (int) frames[base],
+                (float) frames[base + 1],
+                (float) frames[base + 2],
+                (float) frames[base + 3],
+                (float) frames[base + 4]
+            );
+        }
+        return samples;
+    }
+
+    /**
+     * Writes a call's series to disk and drops it from memory.
+     */
+    public synchronized void finish(String callId) throws Exception {
+        Series series = live.remove(callId);
+        if (series == null) {
+            return;
+        }
+        save(callId, series);
+        prune();
+    }
+
+    /**
+     * Saves and drops every live series other than callId that has not
+     * received samples for STALE_MS, i.e. whose final batch never came.
+     */
+    private void evictStale(String callId, long now) {
+        boolean evicted = false;
+        Iterator<Map.Entry<String, Series>> it = live.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Series> entry = it.next();
+            if (entry.getKey().equals(callId) || now - entry.getValue().lastAppendedAt < STALE_MS) {
+                continue;
+            }
+            it.remove();
+            evicted = true;
+            try {
+                save(entry.getKey(), entry.getValue());
+                Log.w(TAG, "Saved unfinished quality series for " + entry.getKey());
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to save unfinished quality series for " + entry.getKey(), e);
+            }
+        }
+        if (evicted) {
+            prune();
+        }
+    }
+
+    private void save(String callId, Series series) throws Exception {
+        series.flushPending();
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+
+        File target = fileFor(callId);
+        File temp = new File(target.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(series.stride);
+            out.writeInt(series.count);
+            for (int i = 0; i < series.count; i++) {
+                out.writeInt(series.time[i]);
+                out.writeFloat(series.rtt[i]);
+                out.writeFloat(series.jitter[i]);
+                out.writeFloat(series.loss[i]);
+                out.writeFloat(series.bitrate[i]);
+            }
+        }
+        if (!temp.renameTo(target)) {
+            temp.delete();
+            throw new Exception("Failed to move call quality file into place: " + target);
+        }
+        Log.d(TAG, "Saved " + series.count + " quality points for " + callId + " (stride " + series.stride + ")");
+    }
+
+    /**
+     * Returns the series for a call still in progress or saved on disk, or
+     * null if there is none.
+     */
+    public synchronized Series read(String callId) throws Exception {
+        Series series = live.get(callId);
+        if (series != null) {
+            return series.copy();
+        }
+
+        File file = fileFor(callId);
+        if (!file.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+                throw new Exception("Unrecognized call quality file: " + file.getName());
+            }
+            int stride = in.readInt();
+            int count = in.readInt();
+            // Don't let a corrupt header size the arrays
+            if (stride < 1 || count < 0 || count > MAX_POINTS
+                    || file.length() != HEADER_BYTES + (long) count * POINT_BYTES) {
+                Log.w(TAG, "Dropping corrupt call quality file: " + file.getName());
+                in.close();
+                file.delete();
+                return null;
+            }
+            series = new Series();
+            series.stride = stride;
+            for (int i = 0; i < count; i++) {
+                series.append(in.readInt(), in.readFloat(), in.readFloat(), in.readFloat(), in.readFloat());
+            }
+            return series;
+        }
+    }
+
+    public synchronized boolean delete(String callId) {
+        live.remove(callId);
+        return fileFor(callId).delete();
+    }
+
+    private File fileFor(String callId) {
+        // Call IDs come from JS; keep them from escaping the directory
+        return new File(dir, callId.replaceAll("[^A-Za-z0-9._-]", "_") + SUFFIX);
+    }
+
+    private void prune() {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(SUFFIX));
+        if (files == null || files.length <= MAX_FILES) {
+            return;
+        }
+        Arrays.sort(files, (a, b) -> Long.compare(b.lastModified(), a.lastModified()));
+        for (int i = MAX_FILES; i < files.length; i++) {
+            files[i].delete();
+        }
+    }
+
+    public static class Series {
+        public int count;
+        public int stride = 1; // raw samples averaged into each point
+        public int[] time = new int[64];
+        public float[] rtt = new float[64];
+        public float[] jitter = new float[64];
+        public float[] loss = new float[64];
+        public float[] bitrate = new float[64];
+
+        // elapsedRealtime of the last append, for evicting unfinished series
+        long lastAppendedAt;
+
+        // Accumulator for samples not yet folded into a point
+        private int pendingCount;
+        private int pendingTime;
+        private float pendingRtt;
+        private float pendingJitter;
+        private float pendingLoss;
+        private float pendingBitrate;
+
+        void add(int t, float rttMs, float jitterMs, float lossPct, float bitrateKbps) {
+            if (pendingCount == 0) {
+                // Make room before the group starts, so it is averaged at
+                // the new stride and spans as much time as its neighbours
+                if (count == MAX_POINTS) {
+                    downsample();
+                }
+                pendingTime = t;
+            }
+            pendingRtt += rttMs;
+            pendingJitter += jitterMs;
+            pendingLoss += lossPct;
+            pendingBitrate += bitrateKbps;
+            if (++pendingCount == stride) {
+                flushPending();
+            }
+        }
+
+        void flushPending() {
+            if (pendingCount == 0) {
+                return;
+            }
+            append(pendingTime, pendingRtt / pendingCount, pendingJitter / pendingCount,
+                pendingLoss / pendingCount, pendingBitrate / pendingCount);
+            pendingCount = 0;
+            pendingRtt = 0;
+            pendingJitter = 0;
+            pendingLoss = 0;
+            pendingBitrate = 0;
+        }
+
+        void append(int t, float rttMs, float jitterMs, float lossPct, float bitrateKbps) {
+            if (count == time.length) {
+                int capacity = Math.min(time.length * 2, MAX_POINTS);
+                time = Arrays.copyOf(time, capacity);
+                rtt = Arrays.copyOf(rtt, capacity);
+                jitter = Arrays.copyOf(jitter, capacity);
+                loss = Arrays.copyOf(loss, capacity);
+                bitrate = Arrays.copyOf(bitrate, capacity);
+            }
+            time[count] = t;
+            rtt[count] = rttMs;
+            jitter[count] = jitterMs;
+            loss[count] = lossPct;
+            bitrate[count] = bitrateKbps;
+            count++;
+        }
+
+        private void downsample() {
+            int merged = count / 2;
+            for (int i = 0; i < merged; i++) {
+                int a = i * 2;
+                int b = a + 1;
+                time[i] = time[a];
+                rtt[i] = (rtt[a] + rtt[b]) / 2;
+                jitter[i] = (jitter[a] + jitter[b]) / 2;
+                loss[i] = (loss[a] + loss[b]) / 2;
+                bitrate[i] = (bitrate[a] + bitrate[b]) / 2;
+            }
+            count = merged;
+            stride *= 2;
+        }
+
+        Series copy() {
+            Series copy = new Series();
+            copy.count = count;
+            copy.stride = stride;
+            copy.time = Arrays.copyOf(time, count);
+            copy.rtt = Arrays.copyOf(rtt, count);
+            copy.jitter = Arrays.copyOf(jitter, count);
+            copy.loss = Arrays.copyOf(loss, count);
+            copy.bitrate = Arrays.copyOf(bitrate, count);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.voicetel.phone;
+
+import android.content.Context;
+import android.media.AudioAttributes;
+import android.media.AudioManager;
+import android.media.MediaPlayer;
+import android.media.RingtoneManager;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.VibrationEffect;
+import android.os.Vibrator;
+import android.provider.Settings;
+import android.util.Log;
+
+/**
+ * Plays the incoming call ringtone and vibration natively, so ringing starts
+ * with the notification and is not subject to WebView timer throttling or a
+ * stalled page. Honors the device ringer mode (normal / vibrate / silent).
+ * start() and stop() are synchronized and idempotent.
+ */
+public final class CallRinger {
+    private static final String TAG = "CallRinger";
+
+    // Off/on pairs in ms, repeated from index 0 until stopped
+    private static final long[] VIBRATION_PATTERN = {0, 1000, 1000};
+
+    private static final AudioAttributes RINGTONE_ATTRIBUTES = new AudioAttributes.Builder()
+        .setUsage(AudioAttributes.USAGE_NOTIFICATION_RINGTONE)
+        .setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION)
+        .build();
+
+    private static final Handler handler = new Handler(Looper.getMainLooper());
+    // Backstop in case nothing calls stop() (e.g. the page died while ringing)
+    private static final Runnable timeout = CallRinger::stop;
+
+    private static MediaPlayer player;
+    private static Vibrator vibrator;
+    private static boolean ringing;
+
+    private CallRinger() {
+    }
+
+    public static synchronized boolean isRinging() {
+        return ringing;
+    }
+
+    public static synchronized void start(Context context) {
+        if (ringing) {
+            return;
+        }
+        Context appContext = context.getApplicationContext();
+        AudioManager audioManager = (AudioManager) appContext.getSystemService(Context.AUDIO_SERVICE);
+        int ringerMode = audioManager != null ? audioManager.getRingerMode() : AudioManager.RINGER_MODE_NORMAL;
+        Log.d(TAG, "Starting ringer, ringer mode " + ringerMode);
+
+        if (ringerMode == AudioManager.RINGER_MODE_SILENT) {
+            return;
+        }
+        ringing = true;
+        handler.postDelayed(timeout, PendingIncomingCall.EXPIRY_MS);
+
+        if (ringerMode == AudioManager.RINGER_MODE_NORMAL) {
+            startRingtone(appContext);
+        }
+        startVibration(appContext);
+    }
+
+    public static synchronized void stop() {
+        if (!ringing) {
+            return;
+        }
+        ringing = false;
+        handler.removeCallbacks(timeout);
+        Log.d(TAG, "Stopping ringer");
+
+        if (player != null) {
+            try {
+                player.stop();
+            } catch (IllegalStateException ignored) {
+                // Not prepared yet
+            }
+            player.release();
+            player = null;
+        }
+        if (vibrator != null) {
+            vibrator.cancel();
+            vibrator = null;
+        }
+    }
+
+    private static void startRingtone(Context context) {
+        Uri ringtoneUri = RingtoneManager.getActualDefaultRingtoneUri(context, RingtoneManager.TYPE_RINGTONE);
+        if (ringtoneUri == null) {
+            ringtoneUri = Settings.System.DEFAULT_RINGTONE_URI;
+        }
+
+        MediaPlayer mediaPlayer = new MediaPlayer();
+        try {
+            mediaPlayer.setAudioAttributes(RINGTONE_ATTRIBUTES);
+            mediaPlayer.setDataSource(context, ringtoneUri);
+            mediaPlayer.setLooping(true);
+            mediaPlayer.setOnPreparedListener(prepared -> {
+                synchronized (CallRinger.class) {
+                    // Ignore a prepare that completes after stop()
+                    if (player == prepared) {
+                        prepared.start();
+                    }
+                }
+            });
+            mediaPlayer.setOnErrorListener((failed, what, extra) -> {
+                Log.w(TAG, "Ringtone playback error " + what + "/" + extra);
+                return false;
+            });
+            player = mediaPlayer;
+            mediaPlayer.prepareAsync();
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to play ringtone", e);
+            mediaPlayer.release();
+            player = null;
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private static void startVibration(Context context) {
+        Vibrator deviceVibrator = (Vibrator) context.getSystemService(Context.VIBRATOR_SERVICE);
+        if (deviceVibrator == null || !deviceVibrator.hasVibrator()) {
+            return;
+        }
+        vibrator = deviceVibrator;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            deviceVibrator.vibrate(VibrationEffect.createWaveform(VIBRATION_PATTERN, 0), RINGTONE_ATTRIBUTES);
+        } else {
+            deviceVibrator.vibrate(VIBRATION_PATTERN, 0, RINGTONE_ATTRIBUTES);
+        }
+    }
+}
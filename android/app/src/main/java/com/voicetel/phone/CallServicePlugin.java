@@ -1,235 +1,683 @@
 package com.voicetel.phone;
 
+import android.net.Uri;
+import android.util.Base64;
+import android.webkit.WebView;
+import com.getcapacitor.JSArray;
 import com.getcapacitor.JSObject;
 import com.getcapacitor.Plugin;
 import com.getcapacitor.PluginCall;
 import com.getcapacitor.PluginMethod;
 import com.getcapacitor.annotation.CapacitorPlugin;
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @CapacitorPlugin(name = "CallService")
 public class CallServicePlugin extends Plugin {
 
-    @PluginMethod
-    public void startCall(PluginCall call) {
-        String callNumber = call.getString("callNumber", "");
+    // Loaded plugin instance, used to reach JS from components without an activity (e.g. receivers)
+    private static volatile CallServicePlugin instance;
+
+    // Exports can take minutes; keep them off the shared plugin thread
+    private final ExecutorService exportExecutor = Executors.newSingleThreadExecutor();
+
+    private CallQualityStore qualityStore;
+
+    @Override
+    public void load() {
+        instance = this;
+        qualityStore = new CallQualityStore(getContext().getFilesDir());
 
         MainActivity activity = (MainActivity) getActivity();
         if (activity != null) {
-            activity.startCallService(callNumber);
+            // Push waveform summaries to JS as the background decoder finishes them
+            activity.getWaveformCache().setListener((filename, summary) -> {
+                JSObject data = toSummaryObject(summary);
+                data.put("filename", filename);
+                notifyListeners("recordingSummaryReady", data);
+            });
+        }
+    }
 
-            JSObject ret = new JSObject();
-            ret.put("success", true);
-            call.resolve(ret);
-        } else {
-            call.reject("Activity not available");
+    @Override
+    protected void handleOnDestroy() {
+        if (instance == this) {
+            instance = null;
+        }
+        // Lets a running export finish, then releases the thread
+        exportExecutor.shutdown();
+        super.handleOnDestroy();
+    }
+
+    /**
+     * Delivers a notification action to window.handleNotificationAction.
+     * Returns false when no bridge is loaded to receive it.
+     */
+    static boolean dispatchNotificationAction(String action, String data) {
+        CallServicePlugin plugin = instance;
+        if (plugin == null || plugin.getBridge() == null || plugin.getBridge().getWebView() == null) {
+            return false;
+        }
+
+        WebView webView = plugin.getBridge().getWebView();
+        webView.post(() -> webView.evaluateJavascript(buildNotificationActionScript(action, data), null));
+        return true;
+    }
+
+    /**
+     * Emits a "linkQuality" event when the call's network link degrades or
+     * recovers. Dropped if no bridge is loaded.
+     */
+    static void publishLinkQuality(LinkQualityMonitor.Sample sample) {
+        CallServicePlugin plugin = instance;
+        if (plugin == null) {
+            return;
+        }
+
+        JSObject data = new JSObject();
+        data.put("poor", sample.poor);
+        data.put("reason", sample.reason);
+        data.put("transport", sample.transport);
+        data.put("validated", sample.validated);
+        data.put("downstreamKbps", sample.downstreamKbps);
+        data.put("upstreamKbps", sample.upstreamKbps);
+        data.put("signalStrength", sample.signalStrength);
+        data.put("rxKbps", sample.rxKbps);
+        data.put("txKbps", sample.txKbps);
+        plugin.notifyListeners("linkQuality", data);
+    }
+
+    static String buildNotificationActionScript(String action, String data) {
+        return String.format(
+            "if (typeof window !== 'undefined' && typeof window.handleNotificationAction === 'function') { " +
+            "window.handleNotificationAction('%s', %s); " +
+            "} else { " +
+            "console.log('handleNotificationAction not available, action: %s'); " +
+            "}",
+            action,
+            data != null ? "'" + data + "'" : "null",
+            action
+        );
+    }
+
+    @PluginMethod
+    public void startCall(PluginCall call) {
+        long started = CallDiagnostics.now();
+        try {
+            String callNumber = call.getString("callNumber", "");
+            boolean excludeHoldTime = call.getBoolean("excludeHoldTime", false);
+            boolean showPoorConnection = call.getBoolean("showPoorConnection", true);
+
+            MainActivity activity = (MainActivity) getActivity();
+            if (activity != null) {
+                activity.startCallService(callNumber, excludeHoldTime, showPoorConnection);
+
+                JSObject ret = new JSObject();
+                ret.put("success", true);
+                call.resolve(ret);
+            } else {
+                call.reject("Activity not available");
+            }
+        } finally {
+            CallDiagnostics.recordBridgeCall("startCall", started);
         }
     }
 
     @PluginMethod
     public void stopCall(PluginCall call) {
-        MainActivity activity = (MainActivity) getActivity();
-        if (activity != null) {
-            activity.stopCallService();
+        long started = CallDiagnostics.now();
+        try {
+            MainActivity activity = (MainActivity) getActivity();
+            if (activity != null) {
+                activity.stopCallService();
 
-            JSObject ret = new JSObject();
-            ret.put("success", true);
-            call.resolve(ret);
-        } else {
-            call.reject("Activity not available");
+                JSObject ret = new JSObject();
+                ret.put("success", true);
+                call.resolve(ret);
+            } else {
+                call.reject("Activity not available");
+            }
+        } finally {
+            CallDiagnostics.recordBridgeCall("stopCall", started);
         }
     }
 
     @PluginMethod
     public void updateCallNumber(PluginCall call) {
-        String callNumber = call.getString("callNumber", "");
+        long started = CallDiagnostics.now();
+        try {
+            String callNumber = call.getString("callNumber", "");
 
-        MainActivity activity = (MainActivity) getActivity();
-        if (activity != null) {
-            activity.updateCallServiceNumber(callNumber);
+            MainActivity activity = (MainActivity) getActivity();
+            if (activity != null) {
+                activity.updateCallServiceNumber(callNumber);
 
-            JSObject ret = new JSObject();
-            ret.put("success", true);
-            call.resolve(ret);
-        } else {
-            call.reject("Activity not available");
+                JSObject ret = new JSObject();
+                ret.put("success", true);
+                call.resolve(ret);
+            } else {
+                call.reject("Activity not available");
+            }
+        } finally {
+            CallDiagnostics.recordBridgeCall("updateCallNumber", started);
         }
     }
 
     @PluginMethod
     public void isServiceRunning(PluginCall call) {
-        MainActivity activity = (MainActivity) getActivity();
-        if (activity != null) {
-            boolean isRunning = activity.isCallServiceRunning();
+        long started = CallDiagnostics.now();
+        try {
+            MainActivity activity = (MainActivity) getActivity();
+            if (activity != null) {
+                boolean isRunning = activity.isCallServiceRunning();
 
-            JSObject ret = new JSObject();
-            ret.put("isRunning", isRunning);
-            call.resolve(ret);
-        } else {
-            call.reject("Activity not available");
+                JSObject ret = new JSObject();
+                ret.put("isRunning", isRunning);
+                call.resolve(ret);
+            } else {
+                call.reject("Activity not available");
+            }
+        } finally {
+            CallDiagnostics.recordBridgeCall("isServiceRunning", started);
         }
     }
 
     @PluginMethod
     public void showIncomingCallNotification(PluginCall call) {
-        String callerName = call.getString("callerName", "Unknown");
-        String callerNumber = call.getString("callerNumber", "");
+        long started = CallDiagnostics.now();
+        try {
+            String callerName = call.getString("callerName", "Unknown");
+            String callerNumber = call.getString("callerNumber", "");
 
-        MainActivity activity = (MainActivity) getActivity();
-        if (activity != null) {
-            activity.showIncomingCallNotification(callerName, callerNumber);
+            MainActivity activity = (MainActivity) getActivity();
+            if (activity != null) {
+                activity.showIncomingCallNotification(callerName, callerNumber);
 
-            JSObject ret = new JSObject();
-            ret.put("success", true);
-            call.resolve(ret);
-        } else {
-            call.reject("Activity not available");
+                JSObject ret = new JSObject();
+                ret.put("success", true);
+                call.resolve(ret);
+            } else {
+                call.reject("Activity not available");
+            }
+        } finally {
+            CallDiagnostics.recordBridgeCall("showIncomingCallNotification", started);
         }
     }
 
     @PluginMethod
     public void dismissIncomingCallNotification(PluginCall call) {
-        MainActivity activity = (MainActivity) getActivity();
-        if (activity != null) {
-            activity.dismissIncomingCallNotification();
+        long started = CallDiagnostics.now();
+        try {
+            MainActivity activity = (MainActivity) getActivity();
+            if (activity != null) {
+                activity.dismissIncomingCallNotification();
+
+                JSObject ret = new JSObject();
+                ret.put("success", true);
+                call.resolve(ret);
+            } else {
+                call.reject("Activity not available");
+            }
+        } finally {
+            CallDiagnostics.recordBridgeCall("dismissIncomingCallNotification", started);
+        }
+    }
+
+    @PluginMethod
+    public void consumePendingIncomingCall(PluginCall call) {
+        long started = CallDiagnostics.now();
+        try {
+            // Works without the activity: the call may have been rung before the page loaded
+            PendingIncomingCall pending = PendingIncomingCall.consume();
+
+            JSObject ret = new JSObject();
+            ret.put("pending", pending != null);
+            if (pending != null) {
+                ret.put("callerName", pending.callerName);
+                ret.put("callerNumber", pending.callerNumber);
+                ret.put("state", pending.getState());
+                ret.put("ageMs", pending.getAgeMs());
+            }
+            call.resolve(ret);
+        } finally {
+            CallDiagnostics.recordBridgeCall("consumePendingIncomingCall", started);
+        }
+    }
 
+    @PluginMethod
+    public void getCallClock(PluginCall call) {
+        long started = CallDiagnostics.now();
+        try {
             JSObject ret = new JSObject();
-            ret.put("success", true);
+            ret.put("running", CallClock.isRunning());
+            ret.put("paused", CallClock.isPaused());
+            ret.put("elapsedMs", CallClock.getElapsedMs());
             call.resolve(ret);
-        } else {
-            call.reject("Activity not available");
+        } finally {
+            CallDiagnostics.recordBridgeCall("getCallClock", started);
         }
     }
 
     @PluginMethod
     public void updateCallState(PluginCall call) {
-        String state = call.getString("state", "connected");
+        long started = CallDiagnostics.now();
+        try {
+            String state = call.getString("state", "connected");
 
-        MainActivity activity = (MainActivity) getActivity();
-        if (activity != null) {
-            activity.updateCallState(state);
+            MainActivity activity = (MainActivity) getActivity();
+            if (activity != null) {
+                activity.updateCallState(state);
 
-            JSObject ret = new JSObject();
-            ret.put("success", true);
-            call.resolve(ret);
-        } else {
-            call.reject("Activity not available");
+                JSObject ret = new JSObject();
+                ret.put("success", true);
+                call.resolve(ret);
+            } else {
+                call.reject("Activity not available");
+            }
+        } finally {
+            CallDiagnostics.recordBridgeCall("updateCallState", started);
         }
     }
 
     @PluginMethod
     public void setCallMuted(PluginCall call) {
-        Boolean muted = call.getBoolean("muted", false);
+        long started = CallDiagnostics.now();
+        try {
+            Boolean muted = call.getBoolean("muted", false);
 
-        MainActivity activity = (MainActivity) getActivity();
-        if (activity != null) {
-            activity.updateCallMuted(muted);
+            MainActivity activity = (MainActivity) getActivity();
+            if (activity != null) {
+                activity.updateCallMuted(muted);
 
-            JSObject ret = new JSObject();
-            ret.put("success", true);
-            call.resolve(ret);
-        } else {
-            call.reject("Activity not available");
+                JSObject ret = new JSObject();
+                ret.put("success", true);
+                call.resolve(ret);
+            } else {
+                call.reject("Activity not available");
+            }
+        } finally {
+            CallDiagnostics.recordBridgeCall("setCallMuted", started);
         }
     }
 
     @PluginMethod
     public void setCallHeld(PluginCall call) {
-        Boolean onHold = call.getBoolean("onHold", false);
+        long started = CallDiagnostics.now();
+        try {
+            Boolean onHold = call.getBoolean("onHold", false);
 
-        MainActivity activity = (MainActivity) getActivity();
-        if (activity != null) {
-            activity.updateCallHeld(onHold);
+            MainActivity activity = (MainActivity) getActivity();
+            if (activity != null) {
+                activity.updateCallHeld(onHold);
+
+                JSObject ret = new JSObject();
+                ret.put("success", true);
+                call.resolve(ret);
+            } else {
+                call.reject("Activity not available");
+            }
+        } finally {
+            CallDiagnostics.recordBridgeCall("setCallHeld", started);
+        }
+    }
+
+    @PluginMethod
+    public void saveRecording(PluginCall call) {
+        long started = CallDiagnostics.now();
+        try {
+            String filename = call.getString("filename", "");
+            String data = call.getString("data", "");
+            String mimeType = call.getString("mimeType", "audio/webm");
+            String convertToFormat = call.getString("convertToFormat", null); // Optional: "mp3", "wav", etc.
+
+            MainActivity activity = (MainActivity) getActivity();
+            if (activity != null) {
+                try {
+                    String filePath;
+                    if (convertToFormat != null && !convertToFormat.isEmpty()) {
+                        // Request format conversion
+                        filePath = activity.saveRecordingFileWithConversion(filename, data, mimeType, convertToFormat);
+                    } else {
+                        // Save as-is
+                        filePath = activity.saveRecordingFile(filename, data, mimeType);
+                    }
+
+                    JSObject ret = new JSObject();
+                    ret.put("success", true);
+                    ret.put("filePath", filePath);
+                    call.resolve(ret);
+                } catch (Exception e) {
+                    call.reject("Failed to save recording: " + e.getMessage());
+                }
+            } else {
+                call.reject("Activity not available");
+            }
+        } finally {
+            CallDiagnostics.recordBridgeCall("saveRecording", started);
+        }
+    }
 
+    @PluginMethod
+    public void getSupportedFormats(PluginCall call) {
+        long started = CallDiagnostics.now();
+        try {
+            // Returns formats that MediaRecorder supports (from JavaScript)
+            // Native Android MediaRecorder supports more formats, but we use WebView MediaRecorder
             JSObject ret = new JSObject();
-            ret.put("success", true);
+            ret.put("formats", new String[]{
+                "webm", "ogg", "m4a", "mp4"
+            });
+            ret.put("note", "MP3 conversion requires additional library. Currently recording in WebM/Opus format.");
             call.resolve(ret);
-        } else {
-            call.reject("Activity not available");
+        } finally {
+            CallDiagnostics.recordBridgeCall("getSupportedFormats", started);
         }
     }
 
     @PluginMethod
-    public void saveRecording(PluginCall call) {
-        String filename = call.getString("filename", "");
-        String data = call.getString("data", "");
-        String mimeType = call.getString("mimeType", "audio/webm");
-        String convertToFormat = call.getString("convertToFormat", null); // Optional: "mp3", "wav", etc.
+    public void getRecordingFileUrl(PluginCall call) {
+        long started = CallDiagnostics.now();
+        try {
+            String filename = call.getString("filename", "");
+
+            MainActivity activity = (MainActivity) getActivity();
+            if (activity != null) {
+                try {
+                    // Read file and convert to base64 data URL for WebView compatibility
+                    String dataUrl = activity.getRecordingFileAsDataUrl(filename);
+
+                    JSObject ret = new JSObject();
+                    ret.put("success", true);
+                    ret.put("url", dataUrl);
+                    call.resolve(ret);
+                } catch (Exception e) {
+                    call.reject("Failed to get file URL: " + e.getMessage());
+                }
+            } else {
+                call.reject("Activity not available");
+            }
+        } finally {
+            CallDiagnostics.recordBridgeCall("getRecordingFileUrl", started);
+        }
+    }
 
-        MainActivity activity = (MainActivity) getActivity();
-        if (activity != null) {
-            try {
-                String filePath;
-                if (convertToFormat != null && !convertToFormat.isEmpty()) {
-                    // Request format conversion
-                    filePath = activity.saveRecordingFileWithConversion(filename, data, mimeType, convertToFormat);
-                } else {
-                    // Save as-is
-                    filePath = activity.saveRecordingFile(filename, data, mimeType);
+    @PluginMethod
+    public void deleteRecordingFile(PluginCall call) {
+        long started = CallDiagnostics.now();
+        try {
+            String filename = call.getString("filename", "");
+
+            MainActivity activity = (MainActivity) getActivity();
+            if (activity != null) {
+                try {
+                    boolean deleted = activity.deleteRecordingFile(filename);
+
+                    JSObject ret = new JSObject();
+                    ret.put("success", deleted);
+                    call.resolve(ret);
+                } catch (Exception e) {
+                    call.reject("Failed to delete file: " + e.getMessage());
                 }
+            } else {
+                call.reject("Activity not available");
+            }
+        } finally {
+            CallDiagnostics.recordBridgeCall("deleteRecordingFile", started);
+        }
+    }
+
+    @PluginMethod
+    public void getRecordingSummaries(PluginCall call) {
+        long started = CallDiagnostics.now();
+        try {
+            JSArray filenames = call.getArray("filenames", new JSArray());
+
+            MainActivity activity = (MainActivity) getActivity();
+            if (activity != null) {
+                try {
+                    RecordingWaveformCache cache = activity.getWaveformCache();
+                    JSObject summaries = new JSObject();
+                    for (String filename : filenames.<String>toList()) {
+                        try {
+                            RecordingFiles.resolve(activity.getRecordingsDirectory(), filename);
+                        } catch (IllegalArgumentException e) {
+                            // Not a recording in the recordings directory; left out of the result
+                            continue;
+                        }
+                        RecordingWaveformCache.Summary summary = cache.get(filename);
+                        if (summary != null) {
+                            summaries.put(filename, toSummaryObject(summary));
+                        } else {
+                            // Not decoded yet - queue it and report back via recordingSummaryReady
+                            cache.schedule(filename);
+                            JSObject pending = new JSObject();
+                            pending.put("pending", true);
+                            summaries.put(filename, pending);
+                        }
+                    }
+
+                    JSObject ret = new JSObject();
+                    ret.put("summaries", summaries);
+                    call.resolve(ret);
+                } catch (Exception e) {
+                    call.reject("Failed to get recording summaries: " + e.getMessage());
+                }
+            } else {
+                call.reject("Activity not available");
+            }
+        } finally {
+            CallDiagnostics.recordBridgeCall("getRecordingSummaries", started);
+        }
+    }
+
+    @PluginMethod
+    public void openAudioChannel(PluginCall call) {
+        long started = CallDiagnostics.now();
+        try {
+            MainActivity activity = (MainActivity) getActivity();
+            if (activity != null) {
+                // The port itself arrives in JS as a window "message" event
+                boolean supported = activity.openAudioMessageChannel();
 
                 JSObject ret = new JSObject();
-                ret.put("success", true);
-                ret.put("filePath", filePath);
+                ret.put("supported", supported);
                 call.resolve(ret);
-            } catch (Exception e) {
-                call.reject("Failed to save recording: " + e.getMessage());
+            } else {
+                call.reject("Activity not available");
             }
-        } else {
-            call.reject("Activity not available");
+        } finally {
+            CallDiagnostics.recordBridgeCall("openAudioChannel", started);
         }
     }
 
     @PluginMethod
-    public void getSupportedFormats(PluginCall call) {
-        // Returns formats that MediaRecorder supports (from JavaScript)
-        // Native Android MediaRecorder supports more formats, but we use WebView MediaRecorder
-        JSObject ret = new JSObject();
-        ret.put("formats", new String[]{
-            "webm", "ogg", "m4a", "mp4"
-        });
-        ret.put("note", "MP3 conversion requires additional library. Currently recording in WebM/Opus format.");
-        call.resolve(ret);
+    public void exportRecordings(PluginCall call) {
+        long started = CallDiagnostics.now();
+        try {
+            long from = call.getLong("from", 0L);
+            long to = call.getLong("to", 0L);
+            int limit = call.getInt("limit", 0);
+            boolean share = call.getBoolean("share", false);
+            JSArray filenames = call.getArray("filenames", null);
+
+            MainActivity activity = (MainActivity) getActivity();
+            if (activity != null) {
+                exportExecutor.execute(() -> {
+                    try {
+                        RecordingExporter exporter = new RecordingExporter(activity.getRecordingsDirectory());
+                        List<File> files = filenames != null
+                            ? exporter.select(filenames.<String>toList())
+                            : exporter.select(from, to, limit);
+                        if (files.isEmpty()) {
+                            call.reject("No recordings match the selection");
+                            return;
+                        }
+
+                        Uri exportUri = activity.exportRecordingsToZip(files, (filesDone, filesTotal, bytesDone, bytesTotal) -> {
+                            JSObject progress = new JSObject();
+                            progress.put("filesDone", filesDone);
+                            progress.put("filesTotal", filesTotal);
+                            progress.put("bytesDone", bytesDone);
+                            progress.put("bytesTotal", bytesTotal);
+                            notifyListeners("exportProgress", progress);
+                        });
+
+                        if (share) {
+                            activity.shareRecordingsExport(exportUri);
+                        }
+
+                        JSObject ret = new JSObject();
+                        ret.put("success", true);
+                        ret.put("uri", exportUri.toString());
+                        ret.put("fileCount", files.size());
+                        call.resolve(ret);
+                    } catch (Exception e) {
+                        call.reject("Failed to export recordings: " + e.getMessage());
+                    }
+                });
+            } else {
+                call.reject("Activity not available");
+            }
+        } finally {
+            CallDiagnostics.recordBridgeCall("exportRecordings", started);
+        }
     }
 
     @PluginMethod
-    public void getRecordingFileUrl(PluginCall call) {
-        String filename = call.getString("filename", "");
+    public void reportFullyDrawn(PluginCall call) {
+        long started = CallDiagnostics.now();
+        try {
+            MainActivity activity = (MainActivity) getActivity();
+            if (activity != null) {
+                // Ends the TTFD measurement used by the macrobenchmark startup tests
+                activity.runOnUiThread(activity::reportFullyDrawn);
+                call.resolve();
+            } else {
+                call.reject("Activity not available");
+            }
+        } finally {
+            CallDiagnostics.recordBridgeCall("reportFullyDrawn", started);
+        }
+    }
+
+    @PluginMethod
+    public void getDiagnostics(PluginCall call) {
+        long started = CallDiagnostics.now();
+        try {
+            try {
+                call.resolve(JSObject.fromJSONObject(CallDiagnostics.toJson()));
+            } catch (Exception e) {
+                call.reject("Failed to collect diagnostics: " + e.getMessage());
+            }
+        } finally {
+            CallDiagnostics.recordBridgeCall("getDiagnostics", started);
+        }
+    }
+
+    @PluginMethod
+    public void recordCallQuality(PluginCall call) {
+        long started = CallDiagnostics.now();
+        try {
+            String callId = call.getString("callId");
+            JSArray samples = call.getArray("samples");
+            if (callId == null || callId.isEmpty()) {
+                call.reject("callId is required");
+                return;
+            }
 
-        MainActivity activity = (MainActivity) getActivity();
-        if (activity != null) {
             try {
-                // Read file and convert to base64 data URL for WebView compatibility
-                String dataUrl = activity.getRecordingFileAsDataUrl(filename);
+                int accepted = 0;
+                if (samples != null && samples.length() > 0) {
+                    // Samples arrive as one flat numeric array per batch to keep
+                    // bridge serialization and parsing to a single pass
+                    double[] frames = new double[samples.length()];
+                    for (int i = 0; i < frames.length; i++) {
+                        frames[i] = samples.getDouble(i);
+                    }
+                    accepted = qualityStore.append(callId, frames);
+                    CallDiagnostics.qualitySamplesIngested(accepted, started);
+                }
+                if (call.getBoolean("final", false)) {
+                    qualityStore.finish(callId);
+                }
 
                 JSObject ret = new JSObject();
-                ret.put("success", true);
-                ret.put("url", dataUrl);
+                ret.put("accepted", accepted);
                 call.resolve(ret);
             } catch (Exception e) {
-                call.reject("Failed to get file URL: " + e.getMessage());
+                call.reject("Failed to record call quality: " + e.getMessage());
             }
-        } else {
-            call.reject("Activity not available");
+        } finally {
+            CallDiagnostics.recordBridgeCall("recordCallQuality", started);
         }
     }
 
     @PluginMethod
-    public void deleteRecordingFile(PluginCall call) {
-        String filename = call.getString("filename", "");
+    public void getCallQuality(PluginCall call) {
+        long started = CallDiagnostics.now();
+        try {
+            String callId = call.getString("callId");
+            if (callId == null || callId.isEmpty()) {
+                call.reject("callId is required");
+                return;
+            }
 
-        MainActivity activity = (MainActivity) getActivity();
-        if (activity != null) {
             try {
-                boolean deleted = activity.deleteRecordingFile(filename);
+                CallQualityStore.Series series = qualityStore.read(callId);
+                if (series == null) {
+                    call.reject("No quality data for call: " + callId);
+                    return;
+                }
+
+                JSArray samples = new JSArray();
+                for (int i = 0; i < series.count; i++) {
+                    samples.put(series.time[i]);
+                    samples.put(series.rtt[i]);
+                    samples.put(series.jitter[i]);
+                    samples.put(series.loss[i]);
+                    samples.put(series.bitrate[i]);
+                }
 
                 JSObject ret = new JSObject();
-                ret.put("success", deleted);
+                ret.put("callId", callId);
+                ret.put("count", series.count);
+                ret.put("stride", series.stride);
+                ret.put("fields", CallQualityStore.FIELDS);
+                ret.put("samples", samples);
                 call.resolve(ret);
             } catch (Exception e) {
-                call.reject("Failed to delete file: " + e.getMessage());
+                call.reject("Failed to read call quality: " + e.getMessage());
             }
-        } else {
-            call.reject("Activity not available");
+        } finally {
+            CallDiagnostics.recordBridgeCall("getCallQuality", started);
         }
     }
+
+    @PluginMethod
+    public void deleteCallQuality(PluginCall call) {
+        long started = CallDiagnostics.now();
+        try {
+            String callId = call.getString("callId");
+            if (callId == null || callId.isEmpty()) {
+                call.reject("callId is required");
+                return;
+            }
+
+            JSObject ret = new JSObject();
+            ret.put("deleted", qualityStore.delete(callId));
+            call.resolve(ret);
+        } finally {
+            CallDiagnostics.recordBridgeCall("deleteCallQuality", started);
+        }
+    }
+
+    private static JSObject toSummaryObject(RecordingWaveformCache.Summary summary) {
+        JSObject data = new JSObject();
+        data.put("pending", false);
+        data.put("durationMs", summary.durationMs);
+        data.put("peaks", Base64.encodeToString(summary.peaks, Base64.NO_WRAP));
+        return data;
+    }
 }
@@ -0,0 +1,161 @@
+package com.voicetel.phone;
+
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import android.webkit.WebSettings;
+import androidx.core.app.NotificationCompat;
+
+/**
+ * Posts and dismisses the incoming call notification. Only needs a Context,
+ * so a call can ring natively before MainActivity or the WebView exist
+ * (see onIncomingCall).
+ */
+public final class IncomingCallNotifier {
+    private static final String TAG = "IncomingCallNotifier";
+    // Silent channel: CallRinger plays the ringtone and vibration itself.
+    // Channel settings can't change after creation, hence the new ID.
+    private static final String CHANNEL_ID = "voicetel_incoming_ring_channel";
+    private static final String LEGACY_CHANNEL_ID = "voicetel_incoming_call_channel";
+    static final int NOTIFICATION_ID = 2;
+
+    public static final String ACTION_ANSWER = "com.voicetel.phone.ANSWER_CALL";
+    public static final String ACTION_SHOW_INCOMING_CALL = "com.voicetel.phone.SHOW_INCOMING_CALL";
+
+    private IncomingCallNotifier() {
+    }
+
+    /**
+     * Entry point for a call that arrives outside the WebView (a push message
+     * or IncomingCallReceiver). Rings immediately, remembers the call for JS to
+     * pick up after SIP registration, and loads the WebView provider in the
+     * meantime. The Capacitor bridge and SIP registration still only start
+     * with MainActivity.
+     */
+    public static void onIncomingCall(Context context, String callerName, String callerNumber) {
+        long triggered = SystemClock.elapsedRealtime();
+        Context appContext = context.getApplicationContext();
+
+        PendingIncomingCall.set(callerName, callerNumber, triggered);
+        createChannel(appContext);
+        show(appContext, callerName, callerNumber);
+        CallDiagnostics.incomingCallRung(triggered);
+
+        loadWebViewProvider(appContext);
+    }
+
+    public static void createChannel(Context context) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            NotificationChannel channel = new NotificationChannel(
+                CHANNEL_ID,
+                "VoiceTel Incoming Calls",
+                NotificationManager.IMPORTANCE_HIGH // High importance for incoming calls
+            );
+            channel.setDescription("Notifications for incoming phone calls");
+            channel.setShowBadge(true);
+            channel.setSound(null, null);
+            channel.enableVibration(false);
+            channel.enableLights(true);
+
+            NotificationManager notificationManager = context.getSystemService(NotificationManager.class);
+            if (notificationManager != null) {
+                notificationManager.deleteNotificationChannel(LEGACY_CHANNEL_ID);
+                notificationManager.createNotificationChannel(channel);
+                Log.d(TAG, "Incoming call notification channel created");
+            }
+        }
+    }
+
+    public static void show(Context context, String callerName, String callerNumber) {
+        Log.d(TAG, "Showing incoming call notification for: " + callerName + " " + callerNumber);
+
+        // Create intent for opening app (Answer action)
+        // SINGLE_TOP reuses the existing activity instead of restarting it
+        Intent answerIntent = new Intent(context, MainActivity.class);
+        answerIntent.setAction(ACTION_ANSWER);
+        answerIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_SINGLE_TOP);
+        PendingIntent answerPendingIntent = PendingIntent.getActivity(
+            context,
+            0,
+            answerIntent,
+            PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT
+        );
+
+        // The full-screen intent only brings up the call UI; it must not answer,
+        // since the system fires it on its own when the device is locked
+        Intent fullScreenIntent = new Intent(context, MainActivity.class);
+        fullScreenIntent.setAction(ACTION_SHOW_INCOMING_CALL);
+        fullScreenIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_SINGLE_TOP);
+        PendingIntent fullScreenPendingIntent = PendingIntent.getActivity(
+            context,
+            2,
+            fullScreenIntent,
+            PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT
+        );
+
+        // Declining needs no UI - handled by CallActionReceiver
+        Intent declineIntent = new Intent(context, CallActionReceiver.class);
+        declineIntent.setAction(CallActionReceiver.ACTION_DECLINE);
+        PendingIntent declinePendingIntent = PendingIntent.getBroadcast(
+            context,
+            1,
+            declineIntent,
+            PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT
+        );
+
+        // Build notification
+        NotificationCompat.Builder builder = new NotificationCompat.Builder(context, CHANNEL_ID)
+            .setContentTitle("Incoming Call")
+            .setContentText(callerName + "\n" + callerNumber)
+            .setSmallIcon(android.R.drawable.ic_menu_call)
+            .setPriority(NotificationCompat.PRIORITY_HIGH)
+            .setCategory(NotificationCompat.CATEGORY_CALL)
+            .setFullScreenIntent(fullScreenPendingIntent, true) // Show full-screen on lock screen
+            .setContentIntent(fullScreenPendingIntent)
+            .addAction(android.R.drawable.ic_menu_call, "Answer", answerPendingIntent)
+            .addAction(android.R.drawable.ic_menu_close_clear_cancel, "Decline", declinePendingIntent)
+            .setOngoing(true)
+            .setAutoCancel(false)
+            .setSound(null) // CallRinger plays ringtone and vibration
+            .setLights(0xFF0000FF, 500, 500);
+
+        NotificationManager notificationManager = (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+        if (notificationManager != null) {
+            notificationManager.notify(NOTIFICATION_ID, builder.build());
+            Log.d(TAG, "Incoming call notification displayed");
+        }
+        CallRinger.start(context);
+    }
+
+    public static void dismiss(Context context) {
+        Log.d(TAG, "Dismissing incoming call notification");
+        CallRinger.stop();
+        NotificationManager notificationManager = (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+        if (notificationManager != null) {
+            notificationManager.cancel(NOTIFICATION_ID);
+            Log.d(TAG, "Incoming call notification dismissed");
+        }
+    }
+
+    private static void loadWebViewProvider(Context context) {
+        // Only loads the WebView provider's libraries (a large fixed cost of a
+        // cold start), so MainActivity finds them loaded. No WebView, bridge
+        // or page is created here.
+        new Handler(Looper.getMainLooper()).post(() -> {
+            long started = SystemClock.elapsedRealtime();
+            try {
+                WebSettings.getDefaultUserAgent(context);
+                Log.d(TAG, "WebView provider loaded in " + (SystemClock.elapsedRealtime() - started) + "ms");
+            } catch (Exception e) {
+                Log.w(TAG, "WebView provider load failed", e);
+            }
+        });
+    }
+}
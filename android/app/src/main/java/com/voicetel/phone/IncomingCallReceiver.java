@@ -0,0 +1,43 @@
+package com.voicetel.phone;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.util.Log;
+
+/**
+ * Native trigger for an incoming call while the app may not be running.
+ * Stands in for a push message until the push service is wired up; that
+ * service should call IncomingCallNotifier.onIncomingCall the same way.
+ *
+ * Debug builds export this receiver so it can be fired from adb:
+ *   adb shell am broadcast -a com.voicetel.phone.INCOMING_CALL \
+ *     -n com.voicetel.phone/.IncomingCallReceiver \
+ *     --es callerName "Alice" --es callerNumber "5551234567"
+ */
+public class IncomingCallReceiver extends BroadcastReceiver {
+    private static final String TAG = "IncomingCallReceiver";
+
+    public static final String ACTION_INCOMING_CALL = "com.voicetel.phone.INCOMING_CALL";
+    public static final String EXTRA_CALLER_NAME = "callerName";
+    public static final String EXTRA_CALLER_NUMBER = "callerNumber";
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        if (!ACTION_INCOMING_CALL.equals(intent.getAction())) {
+            return;
+        }
+
+        String callerName = intent.getStringExtra(EXTRA_CALLER_NAME);
+        String callerNumber = intent.getStringExtra(EXTRA_CALLER_NUMBER);
+        if (callerNumber == null) {
+            callerNumber = "";
+        }
+        if (callerName == null || callerName.isEmpty()) {
+            callerName = callerNumber.isEmpty() ? "Unknown" : callerNumber;
+        }
+
+        Log.d(TAG, "Incoming call trigger received for: " + callerName + " " + callerNumber);
+        IncomingCallNotifier.onIncomingCall(context, callerName, callerNumber);
+    }
+}
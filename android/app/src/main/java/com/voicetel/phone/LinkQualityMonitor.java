@@ -0,0 +1,222 @@
+package com.voicetel.phone;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.TrafficStats;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+/**
+ * Samples this app's traffic (TrafficStats per UID) and the active
+ * network's capabilities at a fixed low rate while a call is active, and
+ * reports when the link degrades or recovers. Runs on its own thread.
+ */
+public class LinkQualityMonitor {
+    private static final String TAG = "LinkQualityMonitor";
+    private static final long SAMPLE_INTERVAL_MS = 5000;
+
+    // A voice call receives roughly 20-80 kbps; far below that means audio is stalling
+    private static final int MIN_INBOUND_KBPS = 8;
+    private static final int MIN_DOWNSTREAM_ESTIMATE_KBPS = 100;
+    private static final int MIN_WIFI_RSSI_DBM = -80;
+    private static final int MIN_CELLULAR_DBM = -110;
+    // Consecutive samples needed to change state, so one bad sample doesn't flap the badge
+    private static final int HYSTERESIS_SAMPLES = 2;
+
+    public interface Listener {
+        void onLinkQualityChanged(Sample sample);
+    }
+
+    public static class Sample {
+        public String transport = "none";
+        public boolean validated;
+        public int downstreamKbps;
+        public int upstreamKbps;
+        public Integer signalStrength; // dBm (RSSI on Wi-Fi), API 29+ only
+        public int rxKbps;
+        public int txKbps;
+        public boolean poor;
+        public String reason;
+    }
+
+    private final ConnectivityManager connectivityManager;
+    private final Listener listener;
+    private final int uid = Process.myUid();
+    private HandlerThread thread;
+    private volatile Handler handler;
+    private volatile boolean mediaExpected;
+
+    private long lastRxBytes = -1;
+    private long lastTxBytes = -1;
+    private long lastSampleAt;
+    private volatile boolean poor;
+    private int streak;
+    private volatile Sample latest;
+
+    private final Runnable sampler = new Runnable() {
+        @Override
+        public void run() {
+            try {
+                sample();
+            } catch (Exception e) {
+                Log.w(TAG, "Link quality sample failed", e);
+            }
+            // Read once: stop() may clear the field between a check and the post
+            Handler current = handler;
+            if (current != null) {
+                current.postDelayed(this, SAMPLE_INTERVAL_MS);
+            }
+        }
+    };
+
+    public LinkQualityMonitor(Context context, Listener listener) {
+        this.connectivityManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        this.listener = listener;
+    }
+
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        thread = new HandlerThread("VoiceTel-LinkMonitor");
+        thread.start();
+        handler = new Handler(thread.getLooper());
+        handler.post(sampler);
+        Log.d(TAG, "Link quality monitor started");
+    }
+
+    public synchronized void stop() {
+        if (thread == null) {
+            return;
+        }
+        handler.removeCallbacks(sampler);
+        handler = null;
+        thread.quitSafely();
+        thread = null;
+        Log.d(TAG, "Link quality monitor stopped");
+    }
+
+    /**
+     * Whether inbound audio should be flowing (connected and not on hold);
+     * traffic is only judged then.
+     */
+    public void setMediaExpected(boolean expected) {
+        mediaExpected = expected;
+    }
+
+    public boolean isPoor() {
+        return poor;
+    }
+
+    public Sample getLatest() {
+        return latest;
+    }
+
+    private void sample() {
+        Sample sample = new Sample();
+        readNetwork(sample);
+        readTraffic(sample);
+        sample.reason = classify(sample, mediaExpected);
+        boolean samplePoor = sample.reason != null;
+
+        // Only flip state after several consecutive samples disagree with it
+        streak = samplePoor != poor ? streak + 1 : 0;
+        boolean changed = streak >= HYSTERESIS_SAMPLES;
+        if (changed) {
+            poor = samplePoor;
+            streak = 0;
+        }
+        sample.poor = poor;
+        latest = sample;
+
+        if (changed) {
+            Log.d(TAG, "Link quality " + (poor ? "degraded: " + sample.reason : "recovered")
+                + " (" + sample.transport + ", rx " + sample.rxKbps + " kbps)");
+            listener.onLinkQualityChanged(sample);
+        }
+    }
+
+    private void readNetwork(Sample sample) {
+        if (connectivityManager == null) {
+            return;
+        }
+        Network network = connectivityManager.getActiveNetwork();
+        NetworkCapabilities capabilities = network != null ? connectivityManager.getNetworkCapabilities(network) : null;
+        if (capabilities == null) {
+            return;
+        }
+
+        if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_WIFI)) {
+            sample.transport = "wifi";
+        } else if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_CELLULAR)) {
+            sample.transport = "cellular";
+        } else if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_ETHERNET)) {
+            sample.transport = "ethernet";
+        } else {
+            sample.transport = "other";
+        }
+        sample.validated = capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_VALIDATED);
+        sample.downstreamKbps = capabilities.getLinkDownstreamBandwidthKbps();
+        sample.upstreamKbps = capabilities.getLinkUpstreamBandwidthKbps();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            int strength = capabilities.getSignalStrength();
+            if (strength != NetworkCapabilities.SIGNAL_STRENGTH_UNSPECIFIED) {
+                sample.signalStrength = strength;
+            }
+        }
+    }
+
+    private void readTraffic(Sample sample) {
+        long rxBytes = TrafficStats.getUidRxBytes(uid);
+        long txBytes = TrafficStats.getUidTxBytes(uid);
+        long now = SystemClock.elapsedRealtime();
+        if (rxBytes == TrafficStats.UNSUPPORTED || txBytes == TrafficStats.UNSUPPORTED) {
+            sample.rxKbps = -1;
+            sample.txKbps = -1;
+            return;
+        }
+
+        if (lastRxBytes >= 0 && now > lastSampleAt) {
+            long elapsedMs = now - lastSampleAt;
+            sample.rxKbps = (int) ((rxBytes - lastRxBytes) * 8 / elapsedMs);
+            sample.txKbps = (int) ((txBytes - lastTxBytes) * 8 / elapsedMs);
+        } else {
+            sample.rxKbps = -1;
+            sample.txKbps = -1;
+        }
+        lastRxBytes = rxBytes;
+        lastTxBytes = txBytes;
+        lastSampleAt = now;
+    }
+
+    /**
+     * Returns why the link looks poor, or null if it looks fine.
+     */
+    private static String classify(Sample sample, boolean mediaExpected) {
+        if ("none".equals(sample.transport)) {
+            return "no_network";
+        }
+        if (!sample.validated) {
+            return "no_internet";
+        }
+        if (sample.signalStrength != null) {
+            int threshold = "wifi".equals(sample.transport) ? MIN_WIFI_RSSI_DBM : MIN_CELLULAR_DBM;
+            if (sample.signalStrength < threshold) {
+                return "weak_signal";
+            }
+        }
+        if (sample.downstreamKbps > 0 && sample.downstreamKbps < MIN_DOWNSTREAM_ESTIMATE_KBPS) {
+            return "low_bandwidth";
+        }
+        if (mediaExpected && sample.rxKbps >= 0 && sample.rxKbps < MIN_INBOUND_KBPS) {
+            return "inbound_stalled";
+        }
+        return null;
+    }
+}
@@ -1,9 +1,7 @@
 package com.voicetel.phone;
 
 import android.app.ActivityManager;
-import android.app.NotificationChannel;
-import android.app.NotificationManager;
-import android.app.PendingIntent;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
 import android.Manifest;
 import android.content.Intent;
@@ -12,21 +10,37 @@ import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
 import android.util.Log;
+import android.view.WindowManager;
+import android.webkit.WebResourceRequest;
+import android.webkit.WebResourceResponse;
+import android.webkit.WebView;
 import androidx.core.app.ActivityCompat;
-import androidx.core.app.NotificationCompat;
 import androidx.core.content.ContextCompat;
 import androidx.core.content.FileProvider;
+import androidx.webkit.WebViewAssetLoader;
 import com.getcapacitor.BridgeActivity;
+import com.getcapacitor.BridgeWebViewClient;
 
 public class MainActivity extends BridgeActivity {
     private static final String TAG = "MainActivity";
     private static final int NOTIFICATION_PERMISSION_REQUEST_CODE = 1001;
     private static final int RECORD_AUDIO_PERMISSION_REQUEST_CODE = 1002;
-    private static final String INCOMING_CALL_CHANNEL_ID = "voicetel_incoming_call_channel";
-    private static final int INCOMING_CALL_NOTIFICATION_ID = 2;
+    // Older exports than this are deleted by the next export (the newest is always kept)
+    private static final long EXPORT_RETENTION_MS = 60 * 60 * 1000;
+
+    private RecordingWaveformCache waveformCache;
+    private AudioMessageChannel audioMessageChannel;
+
+    // Memory pressure tiers, from ComponentCallbacks2 trim levels (see memoryTierFor)
+    private static final int MEMORY_TIER_NONE = 0;
+    private static final int MEMORY_TIER_LIGHT = 1;
+    private static final int MEMORY_TIER_MODERATE = 2;
+    private static final int MEMORY_TIER_SEVERE = 3;
 
     @Override
     public void onCreate(Bundle savedInstanceState) {
+        long createStarted = CallDiagnostics.now();
+
         // Register custom CallService plugin BEFORE super.onCreate()
         // In Capacitor 7, registerPlugin() must be called before bridge initialization
         registerPlugin(CallServicePlugin.class);
@@ -34,6 +48,9 @@ public class MainActivity extends BridgeActivity {
 
         super.onCreate(savedInstanceState);
 
+        // Serve the prebuilt module bundle before the page's loader asks for it
+        installModuleBundleLoader();
+
         // Request notification permission for Android 13+ (API 33+)
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
             if (ContextCompat.checkSelfPermission(this, Manifest.permission.POST_NOTIFICATIONS)
@@ -65,13 +82,19 @@ public class MainActivity extends BridgeActivity {
         Log.d(TAG, "MainActivity onCreate completed");
 
         // Create incoming call notification channel
-        createIncomingCallNotificationChannel();
+        IncomingCallNotifier.createChannel(this);
+
+        // Idle unless a call is up (this activity may be recreated mid-call);
+        // idle lets the system reclaim the renderer when hidden
+        applyRendererPriority(isInCall());
 
         // Handle intents from notifications
         Intent intent = getIntent();
         if (intent != null) {
             handleNotificationIntents(intent);
         }
+
+        CallDiagnostics.activityCreated(createStarted);
     }
 
     @Override
@@ -106,9 +129,21 @@ public class MainActivity extends BridgeActivity {
     private void handleNotificationIntents(Intent intent) {
         String action = intent.getAction();
         if (action != null) {
-            if ("com.voicetel.phone.ANSWER_CALL".equals(action)) {
+            if (IncomingCallNotifier.ACTION_ANSWER.equals(action)) {
                 Log.d(TAG, "Answer call intent received from notification");
+                // Silence immediately rather than waiting for JS to answer and dismiss
+                CallRinger.stop();
+                showOverLockScreen();
+                // If the page is still loading, JS picks this up with the pending call after registering
+                if (PendingIncomingCall.markAnswered()) {
+                    Log.d(TAG, "Answer recorded for pending incoming call");
+                }
                 sendMessageToJavaScript("ANSWER_CALL", null);
+            } else if (IncomingCallNotifier.ACTION_SHOW_INCOMING_CALL.equals(action)) {
+                // Full-screen intent: only bring the app up; the incoming call
+                // screen appears once the INVITE arrives after registration
+                Log.d(TAG, "Incoming call screen requested from notification");
+                showOverLockScreen();
             } else if ("com.voicetel.phone.DECLINE_CALL".equals(action)) {
                 Log.d(TAG, "Decline call intent received from notification");
                 sendMessageToJavaScript("DECLINE_CALL", null);
@@ -159,98 +194,29 @@ public class MainActivity extends BridgeActivity {
         }
     }
 
-    private void createIncomingCallNotificationChannel() {
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-            NotificationChannel channel = new NotificationChannel(
-                INCOMING_CALL_CHANNEL_ID,
-                "VoiceTel Incoming Calls",
-                NotificationManager.IMPORTANCE_HIGH // High importance for incoming calls
-            );
-            channel.setDescription("Notifications for incoming phone calls");
-            channel.setShowBadge(true);
-            channel.enableVibration(true);
-            channel.enableLights(true);
-
-            NotificationManager notificationManager = getSystemService(NotificationManager.class);
-            if (notificationManager != null) {
-                notificationManager.createNotificationChannel(channel);
-                Log.d(TAG, "Incoming call notification channel created");
-            }
+    private void showOverLockScreen() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O_MR1) {
+            setShowWhenLocked(true);
+            setTurnScreenOn(true);
+        } else {
+            getWindow().addFlags(WindowManager.LayoutParams.FLAG_SHOW_WHEN_LOCKED
+                | WindowManager.LayoutParams.FLAG_TURN_SCREEN_ON);
         }
     }
 
     public void showIncomingCallNotification(String callerName, String callerNumber) {
-        Log.d(TAG, "Showing incoming call notification for: " + callerName + " " + callerNumber);
-
-        // Create intent for opening app (Answer action)
-        Intent answerIntent = new Intent(this, MainActivity.class);
-        answerIntent.setAction("com.voicetel.phone.ANSWER_CALL");
-        answerIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP);
-        PendingIntent answerPendingIntent = PendingIntent.getActivity(
-            this,
-            0,
-            answerIntent,
-            PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT
-        );
-
-        // Create intent for declining call
-        Intent declineIntent = new Intent(this, MainActivity.class);
-        declineIntent.setAction("com.voicetel.phone.DECLINE_CALL");
-        declineIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP);
-        PendingIntent declinePendingIntent = PendingIntent.getActivity(
-            this,
-            1,
-            declineIntent,
-            PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT
-        );
-
-        // Build notification
-        NotificationCompat.Builder builder = new NotificationCompat.Builder(this, INCOMING_CALL_CHANNEL_ID)
-            .setContentTitle("Incoming Call")
-            .setContentText(callerName + "\n" + callerNumber)
-            .setSmallIcon(android.R.drawable.ic_menu_call)
-            .setPriority(NotificationCompat.PRIORITY_HIGH)
-            .setCategory(NotificationCompat.CATEGORY_CALL)
-            .setFullScreenIntent(answerPendingIntent, true) // Show full-screen on lock screen
-            .addAction(android.R.drawable.ic_menu_call, "Answer", answerPendingIntent)
-            .addAction(android.R.drawable.ic_menu_close_clear_cancel, "Decline", declinePendingIntent)
-            .setOngoing(true)
-            .setAutoCancel(false)
-            .setSound(null) // We'll use vibration instead
-            .setVibrate(new long[]{0, 250, 250, 250})
-            .setLights(0xFF0000FF, 500, 500);
-
-        NotificationManager notificationManager = (NotificationManager) getSystemService(Context.NOTIFICATION_SERVICE);
-        if (notificationManager != null) {
-            notificationManager.notify(INCOMING_CALL_NOTIFICATION_ID, builder.build());
-            Log.d(TAG, "Incoming call notification displayed");
-        }
+        IncomingCallNotifier.show(this, callerName, callerNumber);
     }
 
     public void dismissIncomingCallNotification() {
-        Log.d(TAG, "Dismissing incoming call notification");
-        NotificationManager notificationManager = (NotificationManager) getSystemService(Context.NOTIFICATION_SERVICE);
-        if (notificationManager != null) {
-            notificationManager.cancel(INCOMING_CALL_NOTIFICATION_ID);
-            Log.d(TAG, "Incoming call notification dismissed");
-        }
+        IncomingCallNotifier.dismiss(this);
     }
 
     private void sendMessageToJavaScript(String action, String data) {
         runOnUiThread(() -> {
             getBridge().getWebView().postDelayed(() -> {
                 try {
-                    String js = String.format(
-                        "if (typeof window !== 'undefined' && typeof window.handleNotificationAction === 'function') { " +
-                        "window.handleNotificationAction('%s', %s); " +
-                        "} else { " +
-                        "console.log('handleNotificationAction not available, action: %s'); " +
-                        "}",
-                        action,
-                        data != null ? "'" + data + "'" : "null",
-                        action
-                    );
-                    getBridge().getWebView().evaluateJavascript(js, null);
+                    getBridge().getWebView().evaluateJavascript(CallServicePlugin.buildNotificationActionScript(action, data), null);
                     Log.d(TAG, "Sent notification action to JavaScript: " + action);
                 } catch (Exception e) {
                     Log.e(TAG, "Failed to send notification action to JavaScript", e);
@@ -259,12 +225,121 @@ public class MainActivity extends BridgeActivity {
         });
     }
 
-    public void startCallService(String callNumber) {
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        int tier = memoryTierFor(level);
+        if (tier == MEMORY_TIER_NONE) {
+            return;
+        }
+        boolean inCall = isInCall();
+        Log.d(TAG, "onTrimMemory level=" + level + " tier=" + tier + " inCall=" + inCall);
+
+        // Nothing the call depends on is released while one is active; JS
+        // still drops its UI caches
+        if (!inCall) {
+            if (tier >= MEMORY_TIER_MODERATE) {
+                if (audioMessageChannel != null) {
+                    audioMessageChannel.close();
+                    audioMessageChannel = null;
+                }
+                if (getBridge() != null && getBridge().getWebView() != null) {
+                    getBridge().getWebView().clearCache(false);
+                }
+            }
+            if (tier >= MEMORY_TIER_SEVERE) {
+                synchronized (this) {
+                    if (waveformCache != null) {
+                        waveformCache.cancelPending();
+                    }
+                }
+            }
+        }
+
+        if (getBridge() != null && getBridge().getWebView() != null) {
+            String js = "if (window.handleMemoryPressure) { window.handleMemoryPressure("
+                + level + ", " + tier + ", " + inCall + "); }";
+            getBridge().getWebView().evaluateJavascript(js, null);
+        }
+    }
+
+    private static int memoryTierFor(int level) {
+        switch (level) {
+            // UI_HIDDEN is deliberately absent: it fires on every backgrounding
+            // (mid-call too) and says nothing about memory
+            case ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE:
+            case ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW:
+                return MEMORY_TIER_LIGHT;
+            case ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL:
+            case ComponentCallbacks2.TRIM_MEMORY_BACKGROUND:
+                return MEMORY_TIER_MODERATE;
+            case ComponentCallbacks2.TRIM_MEMORY_MODERATE:
+            case ComponentCallbacks2.TRIM_MEMORY_COMPLETE:
+                return MEMORY_TIER_SEVERE;
+            default:
+                return MEMORY_TIER_NONE;
+        }
+    }
+
+    /**
+     * Whether a call is up, from the service rather than this activity, which
+     * may have been recreated mid-call.
+     */
+    private static boolean isInCall() {
+        return CallForegroundService.isRunning();
+    }
+
+    private void setCallActive(boolean active) {
+        // The service starts asynchronously, so the caller says which way it's going
+        runOnUiThread(() -> applyRendererPriority(active));
+    }
+
+    private void installModuleBundleLoader() {
+        if (bridge == null) {
+            return;
+        }
+        WebViewAssetLoader assetLoader = new WebViewAssetLoader.Builder()
+            .setDomain(bridge.getHost())
+            .addPathHandler(ModuleBundleHandler.PATH_PREFIX, new ModuleBundleHandler(this))
+            .build();
+        ModuleBundleHandler.clearCacheAfterUpdate(this, bridge.getWebView());
+        bridge.setWebViewClient(new BridgeWebViewClient(bridge) {
+            @Override
+            public WebResourceResponse shouldInterceptRequest(WebView view, WebResourceRequest request) {
+                WebResourceResponse response = assetLoader.shouldInterceptRequest(request.getUrl());
+                return response != null ? response : super.shouldInterceptRequest(view, request);
+            }
+        });
+        Log.d(TAG, "Module bundle loader installed for " + bridge.getHost());
+    }
+
+    private void applyRendererPriority(boolean inCall) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O || getBridge() == null) {
+            return;
+        }
+        WebView webView = getBridge().getWebView();
+        if (webView == null) {
+            return;
+        }
+        // The renderer runs the SIP stack and WebRTC; during a call keep it at
+        // foreground priority even when the app is in the background
+        if (inCall) {
+            webView.setRendererPriorityPolicy(WebView.RENDERER_PRIORITY_IMPORTANT, false);
+        } else {
+            webView.setRendererPriorityPolicy(WebView.RENDERER_PRIORITY_BOUND, true);
+        }
+        Log.d(TAG, "WebView renderer priority set for " + (inCall ? "active call" : "idle"));
+    }
+
+    public void startCallService(String callNumber, boolean excludeHoldTime, boolean showPoorConnection) {
+        setCallActive(true);
         Intent serviceIntent = new Intent(this, CallForegroundService.class);
         if (callNumber != null && !callNumber.isEmpty()) {
             serviceIntent.putExtra("callNumber", callNumber);
         }
         serviceIntent.putExtra("callState", "dialing");
+        serviceIntent.putExtra("excludeHoldTime", excludeHoldTime);
+        serviceIntent.putExtra("showPoorConnection", showPoorConnection);
         if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.O) {
             startForegroundService(serviceIntent);
         } else {
@@ -274,6 +349,11 @@ public class MainActivity extends BridgeActivity {
     }
 
     public void updateCallState(String state) {
+        // Start the clock before resolving to JS, which reads it right away;
+        // the service applies the same (idempotent) change when the intent lands
+        if ("connected".equals(state)) {
+            CallClock.start();
+        }
         Intent serviceIntent = new Intent(this, CallForegroundService.class);
         serviceIntent.putExtra("callState", state);
         if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.O) {
@@ -296,6 +376,8 @@ public class MainActivity extends BridgeActivity {
     }
 
     public void updateCallHeld(boolean onHold) {
+        // Same as updateCallState: JS syncs its timer as soon as setCallHeld resolves
+        CallClock.setHeld(onHold);
         Intent serviceIntent = new Intent(this, CallForegroundService.class);
         serviceIntent.putExtra("isOnHold", onHold);
         if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.O) {
@@ -309,6 +391,7 @@ public class MainActivity extends BridgeActivity {
     public void stopCallService() {
         Intent serviceIntent = new Intent(this, CallForegroundService.class);
         stopService(serviceIntent);
+        setCallActive(false);
         Log.d(TAG, "Call service stopped");
     }
 
@@ -336,28 +419,106 @@ public class MainActivity extends BridgeActivity {
     }
 
     public String saveRecordingFile(String filename, String base64Data, String mimeType) throws Exception {
+        long started = android.os.SystemClock.elapsedRealtime();
+
+        // Decode base64 data
+        byte[] audioData = android.util.Base64.decode(base64Data, android.util.Base64.DEFAULT);
+
+        String path = writeRecordingBytes(filename, audioData);
+        Log.d(TAG, "Base64 save: " + audioData.length + " bytes in " + (android.os.SystemClock.elapsedRealtime() - started) + "ms");
+
+        // Precompute waveform/duration in the background for the history list
+        getWaveformCache().schedule(filename);
+
+        return path;
+    }
+
+    public String writeRecordingBytes(String filename, byte[] audioData) throws Exception {
         // Get the app's external files directory (Music/CallRecordings)
-        java.io.File recordingsDir = new java.io.File(getExternalFilesDir(null), "CallRecordings");
+        java.io.File recordingsDir = getRecordingsDirectory();
         if (!recordingsDir.exists()) {
             recordingsDir.mkdirs();
         }
 
         // Create the file
         java.io.File recordingFile = new java.io.File(recordingsDir, filename);
+        // Overlapping saves of the same recording each write their own temp
+        // file; the last rename wins and readers never see a partial file.
+        // Dot-prefixed so exports skip it.
+        java.io.File tempFile = java.io.File.createTempFile("." + filename + ".", ".tmp", recordingsDir);
 
-        // Decode base64 data
-        byte[] audioData = android.util.Base64.decode(base64Data, android.util.Base64.DEFAULT);
-
-        // Write to file
-        java.io.FileOutputStream fos = new java.io.FileOutputStream(recordingFile);
-        fos.write(audioData);
-        fos.close();
+        // Write to file, encrypted at rest
+        long writeStarted = CallDiagnostics.now();
+        try {
+            java.io.OutputStream out;
+            try {
+                out = RecordingCrypto.openOutput(tempFile);
+            } catch (Exception e) {
+                // Never fall back to plaintext; the save fails and JS reports it
+                Log.e(TAG, "Recording encryption unavailable, not saving " + filename, e);
+                throw new Exception("Recording encryption unavailable: " + e.getMessage(), e);
+            }
+            try (java.io.OutputStream os = out) {
+                os.write(audioData);
+            }
+            if (!tempFile.renameTo(recordingFile)) {
+                throw new java.io.IOException("Failed to move recording into place: " + recordingFile);
+            }
+        } finally {
+            tempFile.delete();
+        }
+        CallDiagnostics.recordingWritten(audioData.length, writeStarted);
 
         Log.d(TAG, "Recording saved: " + recordingFile.getAbsolutePath());
 
         return recordingFile.getAbsolutePath();
     }
 
+    public byte[] readRecordingBytes(String filename) throws Exception {
+        return readRecordingBytes(filename, 0);
+    }
+
+    /**
+     * Reads a recording into a new array with headerBytes left free at the
+     * start, so a caller that frames the payload (AudioMessageChannel) needs
+     * no second full-size copy.
+     */
+    public byte[] readRecordingBytes(String filename, int headerBytes) throws Exception {
+        java.io.File recordingFile = new java.io.File(getRecordingsDirectory(), filename);
+
+        if (!recordingFile.exists()) {
+            throw new Exception("Recording file not found: " + filename);
+        }
+
+        // Decrypts transparently; older plaintext recordings are read as-is
+        long readStarted = CallDiagnostics.now();
+        int length = (int) RecordingCrypto.plaintextLength(recordingFile);
+        byte[] fileBytes = new byte[headerBytes + length];
+        try (java.io.DataInputStream in = new java.io.DataInputStream(RecordingCrypto.openInput(recordingFile))) {
+            in.readFully(fileBytes, headerBytes, length);
+        }
+        CallDiagnostics.recordingRead(length, readStarted);
+        return fileBytes;
+    }
+
+    static String getRecordingMimeType(String filename) {
+        // Determine MIME type from extension
+        String mimeType = "audio/webm"; // default
+        String lowerFilename = filename.toLowerCase();
+        if (lowerFilename.endsWith(".webm")) {
+            mimeType = "audio/webm";
+        } else if (lowerFilename.endsWith(".ogg")) {
+            mimeType = "audio/ogg";
+        } else if (lowerFilename.endsWith(".mp4") || lowerFilename.endsWith(".m4a")) {
+            mimeType = "audio/mp4";
+        } else if (lowerFilename.endsWith(".mp3")) {
+            mimeType = "audio/mpeg";
+        } else if (lowerFilename.endsWith(".wav")) {
+            mimeType = "audio/wav";
+        }
+        return mimeType;
+    }
+
     public String saveRecordingFileWithConversion(String filename, String base64Data, String mimeType, String targetFormat) throws Exception {
         // For now, save as-is and log conversion request
         // TODO: Implement format conversion using ffmpeg or LAME library
@@ -401,40 +562,18 @@ public class MainActivity extends BridgeActivity {
     }
 
     public String getRecordingFileAsDataUrl(String filename) throws Exception {
-        java.io.File recordingsDir = new java.io.File(getExternalFilesDir(null), "CallRecordings");
-        java.io.File recordingFile = new java.io.File(recordingsDir, filename);
-
-        if (!recordingFile.exists()) {
-            throw new Exception("Recording file not found: " + filename);
-        }
+        long started = android.os.SystemClock.elapsedRealtime();
 
         // Read file content
-        java.io.FileInputStream fis = new java.io.FileInputStream(recordingFile);
-        byte[] fileBytes = new byte[(int) recordingFile.length()];
-        fis.read(fileBytes);
-        fis.close();
+        byte[] fileBytes = readRecordingBytes(filename);
 
         // Convert to base64
         String base64 = android.util.Base64.encodeToString(fileBytes, android.util.Base64.NO_WRAP);
 
-        // Determine MIME type from extension
-        String mimeType = "audio/webm"; // default
-        String lowerFilename = filename.toLowerCase();
-        if (lowerFilename.endsWith(".webm")) {
-            mimeType = "audio/webm";
-        } else if (lowerFilename.endsWith(".ogg")) {
-            mimeType = "audio/ogg";
-        } else if (lowerFilename.endsWith(".mp4") || lowerFilename.endsWith(".m4a")) {
-            mimeType = "audio/mp4";
-        } else if (lowerFilename.endsWith(".mp3")) {
-            mimeType = "audio/mpeg";
-        } else if (lowerFilename.endsWith(".wav")) {
-            mimeType = "audio/wav";
-        }
-
         // Return data URL
-        String dataUrl = "data:" + mimeType + ";base64," + base64;
-        Log.d(TAG, "Converted file to data URL, size: " + fileBytes.length + " bytes");
+        String dataUrl = "data:" + getRecordingMimeType(filename) + ";base64," + base64;
+        Log.d(TAG, "Converted file to data URL, size: " + fileBytes.length + " bytes in "
+            + (android.os.SystemClock.elapsedRealtime() - started) + "ms");
         return dataUrl;
     }
 
@@ -442,6 +581,8 @@ public class MainActivity extends BridgeActivity {
         java.io.File recordingsDir = new java.io.File(getExternalFilesDir(null), "CallRecordings");
         java.io.File recordingFile = new java.io.File(recordingsDir, filename);
 
+        getWaveformCache().remove(filename);
+
         if (recordingFile.exists()) {
             boolean deleted = recordingFile.delete();
             Log.d(TAG, "Recording file deleted: " + filename + " (" + deleted + ")");
@@ -451,4 +592,73 @@ public class MainActivity extends BridgeActivity {
             return false;
         }
     }
+
+    public java.io.File getRecordingsDirectory() {
+        return new java.io.File(getExternalFilesDir(null), "CallRecordings");
+    }
+
+    public synchronized RecordingWaveformCache getWaveformCache() {
+        if (waveformCache == null) {
+            waveformCache = new RecordingWaveformCache(getRecordingsDirectory());
+        }
+        return waveformCache;
+    }
+
+    public Uri exportRecordingsToZip(java.util.List<java.io.File> files, RecordingExporter.ProgressListener listener) throws Exception {
+        java.io.File exportDir = new java.io.File(getCacheDir(), "exports");
+        if (!exportDir.exists()) {
+            exportDir.mkdirs();
+        }
+
+        // Exports can be gigabytes, but a share target may still be reading
+        // the last one: keep the newest and drop the rest once they are old
+        java.io.File[] previous = exportDir.listFiles();
+        if (previous != null && previous.length > 1) {
+            java.util.Arrays.sort(previous, (a, b) -> Long.compare(b.lastModified(), a.lastModified()));
+            long cutoff = System.currentTimeMillis() - EXPORT_RETENTION_MS;
+            for (int i = 1; i < previous.length; i++) {
+                if (previous[i].lastModified() < cutoff) {
+                    previous[i].delete();
+                }
+            }
+        }
+
+        java.io.File target = new java.io.File(exportDir, "voicetel-recordings-" + System.currentTimeMillis() + ".zip");
+        new RecordingExporter(getRecordingsDirectory()).writeZip(files, target, listener);
+
+        return FileProvider.getUriForFile(this, getPackageName() + ".fileprovider", target);
+    }
+
+    public void shareRecordingsExport(Uri exportUri) {
+        Intent shareIntent = new Intent(Intent.ACTION_SEND);
+        shareIntent.setType("application/zip");
+        shareIntent.putExtra(Intent.EXTRA_STREAM, exportUri);
+        shareIntent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+        runOnUiThread(() -> startActivity(Intent.createChooser(shareIntent, "Export recordings")));
+        Log.d(TAG, "Share sheet opened for recordings export: " + exportUri);
+    }
+
+    public boolean openAudioMessageChannel() {
+        if (!AudioMessageChannel.isSupported()) {
+            Log.d(TAG, "Binary audio channel not supported by this WebView");
+            return false;
+        }
+
+        runOnUiThread(() -> {
+            if (audioMessageChannel == null) {
+                audioMessageChannel = new AudioMessageChannel(this);
+            }
+            audioMessageChannel.open(getBridge().getWebView(), getBridge().getLocalUrl());
+        });
+        return true;
+    }
+
+    @Override
+    public void onDestroy() {
+        if (audioMessageChannel != null) {
+            audioMessageChannel.close();
+            audioMessageChannel = null;
+        }
+        super.onDestroy();
+    }
 }
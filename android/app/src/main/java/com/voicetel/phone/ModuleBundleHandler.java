@@ -0,0 +1,155 @@
+package com.voicetel.phone;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.pm.PackageInfo;
+import android.content.res.AssetFileDescriptor;
+import android.os.SystemClock;
+import android.util.Log;
+import android.webkit.WebResourceResponse;
+import android.webkit.WebView;
+import androidx.webkit.WebViewAssetLoader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Serves js/modules.bundle.js (all web modules concatenated at build time by
+ * the bundleWebModules Gradle task) straight from the APK. The asset is
+ * stored uncompressed, so it is memory-mapped once and every response
+ * streams from the mapping instead of copying through the asset stream.
+ *
+ * Returns null for anything else, or when the bundle is missing or
+ * compressed, so the request falls through to Capacitor's local server.
+ */
+public class ModuleBundleHandler implements WebViewAssetLoader.PathHandler {
+    private static final String TAG = "ModuleBundleHandler";
+    public static final String PATH_PREFIX = "/js/";
+    private static final String BUNDLE_NAME = "modules.bundle.js";
+    private static final String ASSET_PATH = "public/js/" + BUNDLE_NAME;
+    private static final String PREFS_NAME = "module_bundle";
+    private static final String PREF_CACHED_BUILD = "cached_build";
+
+    private final Context context;
+    private ByteBuffer mapped;
+    private boolean unavailable;
+    private Map<String, String> headers;
+
+    public ModuleBundleHandler(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    @Override
+    public WebResourceResponse handle(String path) {
+        if (!BUNDLE_NAME.equals(path)) {
+            return null;
+        }
+        ByteBuffer bundle = getMapped();
+        if (bundle == null) {
+            return null;
+        }
+        // Each response reads through its own view of the shared mapping
+        return new WebResourceResponse("application/javascript", "utf-8", 200, "OK",
+            headers, new ByteBufferInputStream(bundle.duplicate()));
+    }
+
+    private synchronized ByteBuffer getMapped() {
+        if (mapped != null || unavailable) {
+            return mapped;
+        }
+        long started = SystemClock.elapsedRealtime();
+        try (AssetFileDescriptor fd = context.getAssets().openFd(ASSET_PATH);
+             FileInputStream in = fd.createInputStream()) {
+            // The mapping stays valid after the descriptor is closed
+            mapped = in.getChannel().map(FileChannel.MapMode.READ_ONLY, fd.getStartOffset(), fd.getLength());
+            headers = buildHeaders();
+            Log.d(TAG, "Mapped " + fd.getLength() + " byte module bundle in "
+                + (SystemClock.elapsedRealtime() - started) + "ms");
+        } catch (IOException e) {
+            // Missing from this build, or packaged compressed (no noCompress entry)
+            unavailable = true;
+            Log.w(TAG, "Module bundle not mappable, serving modules individually: " + e.getMessage());
+        }
+        return mapped;
+    }
+
+    /**
+     * Drops the WebView's HTTP cache the first time the app runs after an
+     * install or update. The bundle URL never changes and is served as
+     * cacheable, so an entry from the previous build must not outlive it.
+     */
+    public static void clearCacheAfterUpdate(Context context, WebView webView) {
+        try {
+            long installed = context.getPackageManager()
+                .getPackageInfo(context.getPackageName(), 0).lastUpdateTime;
+            SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+            if (prefs.getLong(PREF_CACHED_BUILD, 0) != installed) {
+                webView.clearCache(true);
+                prefs.edit().putLong(PREF_CACHED_BUILD, installed).apply();
+                Log.d(TAG, "Cleared WebView cache for new app build");
+            }
+        } catch (Exception e) {
+            Log.w(TAG, "Could not check app build for WebView cache", e);
+        }
+    }
+
+    /**
+     * Headers that only change when the APK does, so the bundle looks the
+     * same to the WebView on every launch of a given build and may be
+     * cached (along with its compiled code) until the next update.
+     */
+    private Map<String, String> buildHeaders() {
+        Map<String, String> result = new HashMap<>();
+        // Safe because clearCacheAfterUpdate empties the cache on every update
+        result.put("Cache-Control", "max-age=31536000, immutable");
+        try {
+            PackageInfo info = context.getPackageManager().getPackageInfo(context.getPackageName(), 0);
+            SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US);
+            format.setTimeZone(TimeZone.getTimeZone("GMT"));
+            result.put("Last-Modified", format.format(new Date(info.lastUpdateTime)));
+            result.put("ETag", "\"" + info.lastUpdateTime + "\"");
+        } catch (Exception e) {
+            Log.w(TAG, "Package info unavailable for bundle headers", e);
+        }
+        return result;
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.voicetel.phone;
+
+import android.os.SystemClock;
+
+/**
+ * The incoming call that native code is ringing for before JavaScript has
+ * registered with the SIP server. Answer/Decline taps made while the page is
+ * still loading are recorded here and replayed once the INVITE arrives.
+ */
+public final class PendingIncomingCall {
+    // Matches INCOMING_CALL_TIMEOUT_MS in call-handler.js
+    static final long EXPIRY_MS = 30000;
+
+    public static final String STATE_RINGING = "ringing";
+    public static final String STATE_ANSWERED = "answered";
+    public static final String STATE_DECLINED = "declined";
+
+    private static PendingIncomingCall current;
+
+    public final String callerName;
+    public final String callerNumber;
+    public final long receivedAt; // SystemClock.elapsedRealtime()
+    private String state = STATE_RINGING;
+
+    private PendingIncomingCall(String callerName, String callerNumber, long receivedAt) {
+        this.callerName = callerName;
+        this.callerNumber = callerNumber;
+        this.receivedAt = receivedAt;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public long getAgeMs() {
+        return SystemClock.elapsedRealtime() - receivedAt;
+    }
+
+    static synchronized void set(String callerName, String callerNumber, long receivedAt) {
+        current = new PendingIncomingCall(callerName, callerNumber, receivedAt);
+    }
+
+    static synchronized boolean markAnswered() {
+        return updateState(STATE_ANSWERED);
+    }
+
+    static synchronized boolean markDeclined() {
+        return updateState(STATE_DECLINED);
+    }
+
+    /**
+     * Returns the pending call and clears it, or null if there is none or it
+     * is older than the ring timeout.
+     */
+    static synchronized PendingIncomingCall consume() {
+        PendingIncomingCall call = current;
+        current = null;
+        if (call == null || call.getAgeMs() > EXPIRY_MS) {
+            return null;
+        }
+        return call;
+    }
+
+    static synchronized void clear() {
+        current = null;
+    }
+
+    private static boolean updateState(String state) {
+        if (current == null || current.getAgeMs() > EXPIRY_MS) {
+            return false;
+        }
+        current.state = state;
+        return true;
+    }
+}
@@ -0,0 +1,422 @@
+package com.voicetel.phone;
+
+import android.media.MediaDataSource;
+import android.security.keystore.KeyGenParameterSpec;
+import android.security.keystore.KeyProperties;
+import android.util.Log;
+import androidx.annotation.VisibleForTesting;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Streaming encryption at rest for call recordings.
+ *
+ * Each file gets its own random AES-256 data key, wrapped once by a key that
+ * never leaves the Android Keystore. The payload is split into fixed-size
+ * chunks sealed independently with AES-GCM, so reads and writes need one
+ * chunk of memory whatever the file size, and any chunk can be decrypted on
+ * its own for seeking. A chunk's IV is its index (unique because the key is
+ * per file) and its AAD is the index plus a final-chunk flag, so reordered,
+ * dropped or truncated chunks fail authentication.
+ *
+ * Layout: magic, version, chunk size, wrap IV, wrapped data key, then chunks
+ * of (ciphertext + 16-byte tag). Files without the magic are legacy
+ * plaintext recordings and are read as-is.
+ */
+public final class RecordingCrypto {
+    private static final String TAG = "RecordingCrypto";
+    private static final String KEYSTORE = "AndroidKeyStore";
+    private static final String KEY_ALIAS = "voicetel_recordings";
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int MAGIC = 0x56544552; // "VTER"
+    private static final int VERSION = 1;
+    static final int CHUNK_SIZE = 64 * 1024;
+    private static final int TAG_BITS = 128;
+    private static final int TAG_BYTES = TAG_BITS / 8;
+    private static final int IV_BYTES = 12;
+    private static final int DATA_KEY_BYTES = 32;
+
+    private static SecretKey masterKey;
+
+    private RecordingCrypto() {
+    }
+
+    /**
+     * True if the file starts with the encrypted recording header.
+     */
+    public static boolean isEncrypted(File file) {
+        if (file.length() < 5) {
+            return false;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            return raf.readInt() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Opens a stream that encrypts everything written to it into the file.
+     * Closing the stream seals the final chunk; a stream that is never closed
+     * leaves a file that fails authentication when read.
+     */
+    public static OutputStream openOutput(File file) throws Exception {
+        SecretKey dataKey = newDataKey();
+        Cipher wrap = Cipher.getInstance(TRANSFORMATION);
+        wrap.init(Cipher.ENCRYPT_MODE, getMasterKey());
+        byte[] wrapIv = wrap.getIV();
+        byte[] wrappedKey = wrap.doFinal(dataKey.getEncoded());
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), CHUNK_SIZE + TAG_BYTES));
+        try {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(CHUNK_SIZE);
+            out.writeByte(wrapIv.length);
+            out.write(wrapIv);
+            out.writeShort(wrappedKey.length);
+            out.write(wrappedKey);
+        } catch (IOException e) {
+            out.close();
+            throw e;
+        }
+        return new ChunkOutputStream(out, dataKey, CHUNK_SIZE);
+    }
+
+    /**
+     * Opens a stream of the recording's plaintext; legacy plaintext files are
+     * returned unchanged.
+     */
+    public static InputStream openInput(File file) throws Exception {
+        if (!isEncrypted(file)) {
+            return new FileInputStream(file);
+        }
+        return new ChunkInputStream(new Reader(file));
+    }
+
+    /**
+     * Plaintext size of a recording, without decrypting it.
+     */
+    public static long plaintextLength(File file) throws Exception {
+        if (!isEncrypted(file)) {
+            return file.length();
+        }
+        try (Reader reader = new Reader(file)) {
+            return reader.plaintextLength;
+        }
+    }
+
+    /**
+     * Random-access plaintext view for MediaExtractor/MediaPlayer. Only valid
+     * for encrypted files; use the path directly for legacy ones.
+     */
+    public static MediaDataSource openDataSource(File file) throws Exception {
+        return new DataSource(new Reader(file));
+    }
+
+    /**
+     * Replaces the Keystore master key (null goes back to the Keystore).
+     * Robolectric has no AndroidKeyStore, so JVM tests supply a plain key.
+     */
+    @VisibleForTesting
+    static synchronized void setMasterKey(SecretKey key) {
+        masterKey = key;
+    }
+
+    private static synchronized SecretKey getMasterKey() throws Exception {
+        if (masterKey != null) {
+            return masterKey;
+        }
+        KeyStore keyStore = KeyStore.getInstance(KEYSTORE);
+        keyStore.load(null);
+        KeyStore.Entry entry = keyStore.getEntry(KEY_ALIAS, null);
+        if (entry instanceof KeyStore.SecretKeyEntry) {
+            masterKey = ((KeyStore.SecretKeyEntry) entry).getSecretKey();
+        } else {
+            KeyGenerator generator = KeyGenerator.getInstance(KeyProperties.KEY_ALGORITHM_AES, KEYSTORE);
+            generator.init(new KeyGenParameterSpec.Builder(
+                KEY_ALIAS, KeyProperties.PURPOSE_ENCRYPT | KeyProperties.PURPOSE_DECRYPT)
+                .setBlockModes(KeyProperties.BLOCK_MODE_GCM)
+                .setEncryptionPaddings(KeyProperties.ENCRYPTION_PADDING_NONE)
+                .setKeySize(256)
+                .build());
+            masterKey = generator.generateKey();
+            Log.d(TAG, "Created recording master key in Android Keystore");
+        }
+        return masterKey;
+    }
+
+    private static SecretKey newDataKey() {
+        byte[] key = new byte[DATA_KEY_BYTES];
+        new SecureRandom().nextBytes(key);
+        return new SecretKeySpec(key, "AES");
+    }
+
+    private static GCMParameterSpec chunkIv(long index) {
+        byte[] iv = new byte[IV_BYTES];
+        ByteBuffer.wrap(iv, IV_BYTES - 8, 8).putLong(index);
+        return new GCMParameterSpec(TAG_BITS, iv);
+    }
+
+    private static byte[] chunkAad(long index, boolean isFinal) {
+        return ByteBuffer.allocate(9).putLong(index).put((byte) (isFinal ? 1 : 0)).array();
+    }
+
+    private static class ChunkOutputStream extends OutputStream {
+        private final OutputStream out;
+        private final SecretKey key;
+        private final Cipher cipher;
+        private final byte[] plain;
+        private final byte[] sealed;
+        private int buffered;
+        private long index;
+        private boolean closed;
+
+        ChunkOutputStream(OutputStream out, SecretKey key, int chunkSize) throws GeneralSecurityException {
+            this.out = out;
+            this.key = key;
+            this.cipher = Cipher.getInstance(TRANSFORMATION);
+            this.plain = new byte[chunkSize];
+            this.sealed = new byte[chunkSize + TAG_BYTES];
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                // Only seal a full chunk once more data arrives; the last one is sealed as final on close
+                if (buffered == plain.length) {
+                    sealChunk(false);
+                }
+                int n = Math.min(len, plain.length - buffered);
+                System.arraycopy(b, off, plain, buffered, n);
+                buffered += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                sealChunk(true);
+            } finally {
+                out.close();
+            }
+        }
+
+        private void sealChunk(boolean isFinal) throws IOException {
+            try {
+                cipher.init(Cipher.ENCRYPT_MODE, key, chunkIv(index));
+                cipher.updateAAD(chunkAad(index, isFinal));
+                int length = cipher.doFinal(plain, 0, buffered, sealed, 0);
+                out.write(sealed, 0, length);
+            } catch (GeneralSecurityException e) {
+                throw new IOException("Failed to encrypt recording chunk " + index, e);
+            }
+            index++;
+            buffered = 0;
+        }
+    }
+
+    /**
+     * Parses the header and decrypts individual chunks, keeping the most
+     * recently decrypted one so sequential and nearby reads are cheap.
+     */
+    private static class Reader implements AutoCloseable {
+        private final RandomAccessFile raf;
+        private final SecretKey key;
+        private final Cipher cipher;
+        private final long dataStart;
+        private final int chunkSize;
+        private final long chunkCount;
+        final long plaintextLength;
+
+        private final byte[] sealed;
+        private final byte[] plain;
+        private long cachedIndex = -1;
+        private int cachedLength;
+
+        Reader(File file) throws Exception {
+            raf = new RandomAccessFile(file, "r");
+            try {
+                if (raf.readInt() != MAGIC || raf.readByte() != VERSION) {
+                    throw new Exception("Unrecognized encrypted recording: " + file.getName());
+                }
+                chunkSize = raf.readInt();
+                byte[] wrapIv = new byte[raf.readUnsignedByte()];
+                raf.readFully(wrapIv);
+                byte[] wrappedKey = new byte[raf.readUnsignedShort()];
+                raf.readFully(wrappedKey);
+                dataStart = raf.getFilePointer();
+
+                Cipher unwrap = Cipher.getInstance(TRANSFORMATION);
+                unwrap.init(Cipher.DECRYPT_MODE, getMasterKey(), new GCMParameterSpec(TAG_BITS, wrapIv));
+                key = new SecretKeySpec(unwrap.doFinal(wrappedKey), "AES");
+                cipher = Cipher.getInstance(TRANSFORMATION);
+
+                long sealedLength = raf.length() - dataStart;
+                long sealedChunk = chunkSize + TAG_BYTES;
+                chunkCount = Math.max(1, (sealedLength + sealedChunk - 1) / sealedChunk);
+                long lastSealed = sealedLength - (chunkCount - 1) * sealedChunk;
+                if (lastSealed < TAG_BYTES) {
+                    throw new Exception("Truncated encrypted recording: " + file.getName());
+                }
+                plaintextLength = (chunkCount - 1) * chunkSize + lastSealed - TAG_BYTES;
+            } catch (Exception e) {
+                raf.close();
+                throw e;
+            }
+            sealed = new byte[chunkSize + TAG_BYTES];
+            plain = new byte[chunkSize];
+        }
+
+        /**
+         * Copies plaintext starting at position into b; returns bytes copied,
+         * or -1 at end of file.
+         */
+        synchronized int read(long position, byte[] b, int off, int len) throws IOException {
+            if (position >= plaintextLength) {
+                return -1;
+            }
+            long index = position / chunkSize;
+            if (index != cachedIndex) {
+                decryptChunk(index);
+            }
+            int offsetInChunk = (int) (position - index * chunkSize);
+            int n = Math.min(len, cachedLength - offsetInChunk);
+            System.arraycopy(plain, offsetInChunk, b, off, n);
+            return n;
+        }
+
+        private void decryptChunk(long index) throws IOException {
+            boolean isFinal = index == chunkCount - 1;
+            long sealedChunk = chunkSize + TAG_BYTES;
+            int length = (int) (isFinal ? raf.length() - dataStart - index * sealedChunk : sealedChunk);
+            raf.seek(dataStart + index * sealedChunk);
+            try {
+                raf.readFully(sealed, 0, length);
+            } catch (EOFException e) {
+                throw new IOException("Truncated encrypted recording at chunk " + index, e);
+            }
+            try {
+                cipher.init(Cipher.DECRYPT_MODE, key, chunkIv(index));
+                cipher.updateAAD(chunkAad(index, isFinal));
+                cachedLength = cipher.doFinal(sealed, 0, length, plain, 0);
+                cachedIndex = index;
+            } catch (GeneralSecurityException e) {
+                cachedIndex = -1;
+                throw new IOException("Recording chunk " + index + " failed authentication", e);
+            }
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            raf.close();
+        }
+    }
+
+    private static class ChunkInputStream extends InputStream {
+        private final Reader reader;
+        private long position;
+
+        ChunkInputStream(Reader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) == -1 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            int n = reader.read(position, b, off, len);
+            if (n > 0) {
+                position += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            long skipped = Math.max(0, Math.min(n, reader.plaintextLength - position));
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, reader.plaintextLength - position);
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private static class DataSource extends MediaDataSource {
+        private final Reader reader;
+
+        DataSource(Reader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public int readAt(long position, byte[] buffer, int offset, int size) throws IOException {
+            if (size == 0) {
+                return 0;
+            }
+            // MediaDataSource wants as much as asked for in one call, possibly spanning chunks
+            int total = 0;
+            while (total < size) {
+                int n = reader.read(position + total, buffer, offset + total, size - total);
+                if (n == -1) {
+                    break;
+                }
+                total += n;
+            }
+            return total == 0 ? -1 : total;
+        }
+
+        @Override
+        public long getSize() {
+            return reader.plaintextLength;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.voicetel.phone;
+
+import android.util.Log;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams a selection of call recordings into a ZIP archive using a fixed
+ * copy buffer, so memory use stays constant regardless of export size.
+ * Encrypted recordings are decrypted chunk by chunk on the way in.
+ */
+public class RecordingExporter {
+    private static final String TAG = "RecordingExporter";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long PROGRESS_INTERVAL_BYTES = 1024 * 1024;
+
+    public interface ProgressListener {
+        void onProgress(int filesDone, int filesTotal, long bytesDone, long bytesTotal);
+    }
+
+    private final File recordingsDir;
+
+    public RecordingExporter(File recordingsDir) {
+        this.recordingsDir = recordingsDir;
+    }
+
+    /**
+     * Selects recordings by last-modified time, newest first.
+     *
+     * @param fromMs inclusive lower bound (epoch ms), or 0 for no bound
+     * @param toMs inclusive upper bound (epoch ms), or 0 for no bound
+     * @param limit maximum number of recordings, or 0 for no limit
+     */
+    public List<File> select(long fromMs, long toMs, int limit) {
+        List<File> selected = new ArrayList<>();
+        File[] files = recordingsDir.listFiles();
+        if (files == null) {
+            return selected;
+        }
+
+        // Newest first so "limit" means "the most recent N recordings"
+        Arrays.sort(files, (a, b) -> Long.compare(b.lastModified(), a.lastModified()));
+        for (File file : files) {
+            // Skip sidecar directories and temp files (e.g. .waveforms)
+            if (!file.isFile() || file.getName().startsWith(".")) {
+                continue;
+            }
+            long modified = file.lastModified();
+            if (fromMs > 0 && modified < fromMs) {
+                continue;
+            }
+            if (toMs > 0 && modified > toMs) {
+                continue;
+            }
+            selected.add(file);
+            if (limit > 0 && selected.size() >= limit) {
+                break;
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Selects recordings by name. Names come from JS; any that does not pass
+     * RecordingFiles.resolve rejects the whole selection.
+     */
+    public List<File> select(List<String> filenames) throws IOException {
+        List<File> selected = new ArrayList<>();
+        for (String filename : filenames) {
+            File file = RecordingFiles.resolve(recordingsDir, filename);
+            if (file.isFile()) {
+                selected.add(file);
+            }
+        }
+        return selected;
+    }
+
+    public void writeZip(List<File> files, File target, ProgressListener listener) throws Exception {
+        long bytesTotal = 0;
+        for (File file : files) {
+            bytesTotal += RecordingCrypto.plaintextLength(file);
+        }
+
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long bytesDone = 0;
+        long lastReported = 0;
+        int filesDone = 0;
+
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(target))) {
+            // Recordings are already Opus/AAC compressed; deflating again only burns CPU
+            zip.setLevel(Deflater.NO_COMPRESSION);
+
+            for (File file : files) {
+                ZipEntry entry = new ZipEntry(file.getName());
+                entry.setTime(file.lastModified());
+                zip.putNextEntry(entry);
+
+                // Exports are for sharing, so recordings are decrypted into the archive
+                try (InputStream in = RecordingCrypto.openInput(file)) {
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        zip.write(buffer, 0, read);
+                        bytesDone += read;
+                        if (listener != null && bytesDone - lastReported >= PROGRESS_INTERVAL_BYTES) {
+                            lastReported = bytesDone;
+                            listener.onProgress(filesDone, files.size(), bytesDone, bytesTotal);
+                        }
+                    }
+                }
+
+                zip.closeEntry();
+                filesDone++;
+                if (listener != null) {
+                    lastReported = bytesDone;
+                    listener.onProgress(filesDone, files.size(), bytesDone, bytesTotal);
+                }
+            }
+        } catch (Exception e) {
+            target.delete();
+            throw e;
+        }
+
+        Log.d(TAG, "Exported " + filesDone + " recordings (" + bytesDone + " bytes) to " + target.getAbsolutePath());
+    }
+}
@@ -0,0 +1,32 @@
+package com.voicetel.phone;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Resolves recording names that come from JS. A name is only accepted if
+ * it is a plain file name that resolves directly inside the recordings
+ * directory: no separators, "..", symlinks out, or dot files (sidecar
+ * directories and temp files).
+ */
+public final class RecordingFiles {
+    private RecordingFiles() {
+    }
+
+    /**
+     * Returns the recording's file (which may not exist yet), or throws
+     * IllegalArgumentException for a name that fails the rules above.
+     */
+    public static File resolve(File recordingsDir, String filename) throws IOException {
+        if (filename == null || filename.isEmpty()) {
+            throw new IllegalArgumentException("Empty recording name");
+        }
+        File file = new File(recordingsDir, filename).getCanonicalFile();
+        if (!filename.equals(file.getName())
+                || filename.startsWith(".")
+                || !recordingsDir.getCanonicalFile().equals(file.getParentFile())) {
+            throw new IllegalArgumentException("Invalid recording name: " + filename);
+        }
+        return file;
+    }
+}
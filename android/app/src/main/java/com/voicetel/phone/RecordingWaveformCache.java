@@ -0,0 +1,381 @@
+package com.voicetel.phone;
+
+import android.media.MediaCodec;
+import android.media.MediaDataSource;
+import android.media.MediaExtractor;
+import android.media.MediaFormat;
+import android.util.Log;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes each call recording once on a background thread and stores a
+ * downsampled peak waveform plus exact duration in a small sidecar file
+ * (CallRecordings/.waveforms/&lt;filename&gt;.wfm), so the history list can
+ * render without loading audio payloads.
+ */
+public class RecordingWaveformCache {
+    private static final String TAG = "RecordingWaveformCache";
+    private static final String CACHE_DIR_NAME = ".waveforms";
+    private static final String CACHE_SUFFIX = ".wfm";
+    private static final int MAGIC = 0x56545746; // "VTWF"
+    private static final int VERSION = 1;
+    private static final int PEAK_COUNT = 200;
+    private static final int WINDOWS_PER_SECOND = 50; // 20ms peak windows before downsampling
+    private static final long CODEC_TIMEOUT_US = 10000;
+    private static final long IDLE_THREAD_TIMEOUT_SECONDS = 30;
+
+    public interface Listener {
+        void onSummaryReady(String filename, Summary summary);
+    }
+
+    public static class Summary {
+        public final long durationMs;
+        public final byte[] peaks; // 0-255, max absolute amplitude per bucket
+
+        Summary(long durationMs, byte[] peaks) {
+            this.durationMs = durationMs;
+            this.peaks = peaks;
+        }
+    }
+
+    private final File recordingsDir;
+    private final File cacheDir;
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+        1, 1, IDLE_THREAD_TIMEOUT_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "VoiceTel-Waveform");
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    private final Set<String> pending = Collections.synchronizedSet(new HashSet<>());
+    private volatile Listener listener;
+    private volatile boolean schedulingEnabled = true;
+
+    public RecordingWaveformCache(File recordingsDir) {
+        this.recordingsDir = recordingsDir;
+        this.cacheDir = new File(recordingsDir, CACHE_DIR_NAME);
+        // Decoding is occasional; don't keep an idle thread around between recordings
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Returns the cached summary for a recording, or null if it has not been
+     * computed yet (or the recording changed since it was computed).
+     */
+    public Summary get(String filename) {
+        File source = sourceFor(filename);
+        if (source == null) {
+            return null;
+        }
+        File sidecar = sidecarFor(filename);
+        if (!source.exists() || !sidecar.exists()) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new FileInputStream(sidecar))) {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+                return null;
+            }
+            long sourceLength = in.readLong();
+            long sourceModified = in.readLong();
+            if (sourceLength != source.length() || sourceModified != source.lastModified()) {
+                return null;
+            }
+            long durationMs = in.readLong();
+            byte[] peaks = new byte[in.readUnsignedShort()];
+            in.readFully(peaks);
+            return new Summary(durationMs, peaks);
+        } catch (Exception e) {
+            Log.w(TAG, "Discarding unreadable waveform cache for " + filename, e);
+            return null;
+        }
+    }
+
+    /**
+     * Turns background decoding off, e.g. for benchmarks that save
+     * synthetic audio which would only fail to decode.
+     */
+    public void setSchedulingEnabled(boolean enabled) {
+        schedulingEnabled = enabled;
+    }
+
+    /**
+     * Queues a recording for decoding. Duplicate requests are ignored.
+     */
+    public void schedule(String filename) {
+        if (!schedulingEnabled || sourceFor(filename) == null || !pending.add(filename)) {
+            return;
+        }
+
+        executor.execute(new DecodeTask(filename));
+    }
+
+    private void decode(String filename) {
+        try {
+            if (get(filename) != null) {
+                return;
+            }
+            File source = sourceFor(filename);
+            if (source == null || !source.exists()) {
+                return;
+            }
+
+            long started = System.currentTimeMillis();
+            Summary summary = compute(source);
+            write(filename, source, summary);
+            Log.d(TAG, "Waveform cached for " + filename + ": " + summary.durationMs + "ms, "
+                + summary.peaks.length + " peaks in " + (System.currentTimeMillis() - started) + "ms");
+
+            Listener current = listener;
+            if (current != null) {
+                current.onSummaryReady(filename, summary);
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to compute waveform for " + filename, e);
+        } finally {
+            pending.remove(filename);
+        }
+    }
+
+    /**
+     * Drops queued (not yet started) decodes under memory pressure. A decode
+     * already running is left alone. Dropped recordings are queued again
+     * when getRecordingSummaries next asks for them (history render).
+     */
+    public void cancelPending() {
+        List<Runnable> dropped = new ArrayList<>();
+        executor.getQueue().drainTo(dropped);
+        for (Runnable task : dropped) {
+            pending.remove(((DecodeTask) task).filename);
+        }
+        if (!dropped.isEmpty()) {
+            Log.d(TAG, "Cancelled " + dropped.size() + " queued waveform decodes");
+        }
+    }
+
+    // Named task so cancelPending can tell which recordings it dropped
+    private class DecodeTask implements Runnable {
+        final String filename;
+
+        DecodeTask(String filename) {
+            this.filename = filename;
+        }
+
+        @Override
+        public void run() {
+            decode(filename);
+        }
+    }
+
+    public void remove(String filename) {
+        if (sourceFor(filename) == null) {
+            return;
+        }
+        File sidecar = sidecarFor(filename);
+        if (sidecar.exists()) {
+            sidecar.delete();
+        }
+    }
+
+    /**
+     * The recording for a name from JS, or null if the name is not a plain
+     * recording in the recordings directory. Sidecar paths are only built
+     * from names that pass this check.
+     */
+    private File sourceFor(String filename) {
+        try {
+            return RecordingFiles.resolve(recordingsDir, filename);
+        } catch (Exception e) {
+            Log.w(TAG, "Ignoring invalid recording name: " + filename);
+            return null;
+        }
+    }
+
+    private File sidecarFor(String filename) {
+        return new File(cacheDir, filename + CACHE_SUFFIX);
+    }
+
+    private void write(String filename, File source, Summary summary) throws Exception {
+        if (!cacheDir.exists()) {
+            cacheDir.mkdirs();
+        }
+
+        // Write to a temp file first so readers never see a partial sidecar
+        File sidecar = sidecarFor(filename);
+        File temp = new File(cacheDir, filename + CACHE_SUFFIX + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(temp))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(source.length());
+            out.writeLong(source.lastModified());
+            out.writeLong(summary.durationMs);
+            out.writeShort(summary.peaks.length);
+            out.write(summary.peaks);
+        }
+        if (!temp.renameTo(sidecar)) {
+            temp.delete();
+            throw new Exception("Failed to move waveform cache into place: " + sidecar);
+        }
+    }
+
+    private Summary compute(File source) throws Exception {
+        MediaExtractor extractor = new MediaExtractor();
+        MediaCodec codec = null;
+        MediaDataSource dataSource = null;
+        try {
+            if (RecordingCrypto.isEncrypted(source)) {
+                // Decrypt on demand as the extractor seeks, rather than into a temp file
+                dataSource = RecordingCrypto.openDataSource(source);
+                extractor.setDataSource(dataSource);
+            } else {
+                extractor.setDataSource(source.getAbsolutePath());
+            }
+
+            MediaFormat format = null;
+            for (int i = 0; i < extractor.getTrackCount(); i++) {
+                MediaFormat trackFormat = extractor.getTrackFormat(i);
+                String mime = trackFormat.getString(MediaFormat.KEY_MIME);
+                if (mime != null && mime.startsWith("audio/")) {
+                    extractor.selectTrack(i);
+                    format = trackFormat;
+                    break;
+                }
+            }
+            if (format == null) {
+                throw new Exception("No audio track in " + source.getName());
+            }
+
+            codec = MediaCodec.createDecoderByType(format.getString(MediaFormat.KEY_MIME));
+            codec.configure(format, null, null, 0);
+            codec.start();
+
+            int sampleRate = format.getInteger(MediaFormat.KEY_SAMPLE_RATE);
+            int channels = format.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
+            int windowFrames = Math.max(1, sampleRate / WINDOWS_PER_SECOND);
+
+            // Peaks per 20ms window; duration is unknown up front (WebM from
+            // MediaRecorder carries none), so grow as we go and downsample at the end
+            short[] windows = new short[WINDOWS_PER_SECOND * 60];
+            int windowCount = 0;
+            int windowPeak = 0;
+            int framesInWindow = 0;
+            long totalFrames = 0;
+
+            MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+            boolean inputDone = false;
+            boolean outputDone = false;
+
+            while (!outputDone) {
+                if (!inputDone) {
+                    int inputIndex = codec.dequeueInputBuffer(CODEC_TIMEOUT_US);
+                    if (inputIndex >= 0) {
+                        ByteBuffer inputBuffer = codec.getInputBuffer(inputIndex);
+                        int size = extractor.readSampleData(inputBuffer, 0);
+                        if (size < 0) {
+                            codec.queueInputBuffer(inputIndex, 0, 0, 0, MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+                            inputDone = true;
+                        } else {
+                            codec.queueInputBuffer(inputIndex, 0, size, extractor.getSampleTime(), 0);
+                            extractor.advance();
+                        }
+                    }
+                }
+
+                int outputIndex = codec.dequeueOutputBuffer(info, CODEC_TIMEOUT_US);
+                if (outputIndex == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
+                    MediaFormat outputFormat = codec.getOutputFormat();
+                    sampleRate = outputFormat.getInteger(MediaFormat.KEY_SAMPLE_RATE);
+                    channels = outputFormat.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
+                    windowFrames = Math.max(1, sampleRate / WINDOWS_PER_SECOND);
+                } else if (outputIndex >= 0) {
+                    ByteBuffer outputBuffer = codec.getOutputBuffer(outputIndex);
+                    if (outputBuffer != null && info.size > 0) {
+                        outputBuffer.position(info.offset);
+                        outputBuffer.limit(info.offset + info.size);
+                        ShortBuffer pcm = outputBuffer.order(ByteOrder.nativeOrder()).asShortBuffer();
+
+                        while (pcm.remaining() >= channels) {
+                            for (int c = 0; c < channels; c++) {
+                                int sample = Math.abs((int) pcm.get());
+                                if (sample > windowPeak) {
+                                    windowPeak = sample;
+                                }
+                            }
+                            totalFrames++;
+                            if (++framesInWindow == windowFrames) {
+                                if (windowCount == windows.length) {
+                                    windows = Arrays.copyOf(windows, windows.length * 2);
+                                }
+                                windows[windowCount++] = (short) Math.min(windowPeak, Short.MAX_VALUE);
+                                windowPeak = 0;
+                                framesInWindow = 0;
+                            }
+                        }
+                    }
+                    codec.releaseOutputBuffer(outputIndex, false);
+                    if ((info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) {
+                        outputDone = true;
+                    }
+                }
+            }
+
+            if (framesInWindow > 0) {
+                if (windowCount == windows.length) {
+                    windows = Arrays.copyOf(windows, windows.length + 1);
+                }
+                windows[windowCount++] = (short) Math.min(windowPeak, Short.MAX_VALUE);
+            }
+
+            long durationMs = totalFrames * 1000L / sampleRate;
+            return new Summary(durationMs, downsample(windows, windowCount));
+        } finally {
+            if (codec != null) {
+                try {
+                    codec.stop();
+                } catch (Exception ignored) {
+                }
+                codec.release();
+            }
+            extractor.release();
+            if (dataSource != null) {
+                dataSource.close();
+            }
+        }
+    }
+
+    private static byte[] downsample(short[] windows, int windowCount) {
+        int bucketCount = Math.min(PEAK_COUNT, windowCount);
+        byte[] peaks = new byte[bucketCount];
+        for (int b = 0; b < bucketCount; b++) {
+            int start = (int) ((long) b * windowCount / bucketCount);
+            int end = (int) ((long) (b + 1) * windowCount / bucketCount);
+            int max = 0;
+            for (int i = start; i < end; i++) {
+                if (windows[i] > max) {
+                    max = windows[i];
+                }
+            }
+            peaks[b] = (byte) (max * 255 / Short.MAX_VALUE);
+        }
+        return peaks;
+    }
+}
@@ -0,0 +1,153 @@
+package com.voicetel.phone;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import android.app.Application;
+import android.app.Notification;
+import android.content.Intent;
+import android.os.Looper;
+import com.getcapacitor.Bridge;
+import com.getcapacitor.JSObject;
+import java.lang.management.ManagementFactory;
+import java.security.SecureRandom;
+import javax.crypto.spec.SecretKeySpec;
+import org.robolectric.Robolectric;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.Shadows;
+import org.robolectric.android.controller.ServiceController;
+import org.robolectric.shadows.ShadowApplication;
+
+/**
+ * Drives CallServicePlugin → MainActivity → CallForegroundService on the JVM.
+ * The plugin runs against a mocked Bridge whose activity is a real (attached,
+ * not created) MainActivity, so no WebView is involved. Intents the activity
+ * sends to the service are delivered to a Robolectric ServiceController the
+ * way the system would: create on first start, onStartCommand per intent,
+ * destroy on stopService. Recordings are encrypted with a random in-memory
+ * key, since Robolectric has no AndroidKeyStore.
+ */
+final class CallServiceHarness implements AutoCloseable {
+    private final ShadowApplication shadowApplication;
+    private final MainActivity activity;
+    private final CallServicePlugin plugin;
+    private ServiceController<CallForegroundService> service;
+    private int startId;
+    private long commandsDelivered;
+
+    CallServiceHarness() {
+        RecordingCrypto.setMasterKey(randomKey());
+
+        Application application = RuntimeEnvironment.getApplication();
+        shadowApplication = Shadows.shadowOf(application);
+        activity = Robolectric.buildActivity(MainActivity.class).get();
+
+        Bridge bridge = mock(Bridge.class);
+        when(bridge.getActivity()).thenReturn(activity);
+        when(bridge.getContext()).thenReturn(activity);
+        plugin = new CallServicePlugin();
+        plugin.setBridge(bridge);
+    }
+
+    MainActivity getActivity() {
+        return activity;
+    }
+
+    CallServicePlugin getPlugin() {
+        return plugin;
+    }
+
+    /**
+     * The running service, or null if it is not started.
+     */
+    CallForegroundService getService() {
+        return service != null ? service.get() : null;
+    }
+
+    long getCommandsDelivered() {
+        return commandsDelivered;
+    }
+
+    FakePluginCall call(String method, JSObject options) {
+        return new FakePluginCall(method, options != null ? options : new JSObject());
+    }
+
+    /**
+     * Delivers every pending start/stop the activity issued, then runs
+     * anything the service posted to the main thread.
+     */
+    void deliver() {
+        Intent intent;
+        while ((intent = shadowApplication.getNextStartedService()) != null) {
+            if (service == null) {
+                service = Robolectric.buildService(CallForegroundService.class, intent).create();
+            }
+            service.withIntent(intent).startCommand(0, ++startId);
+            commandsDelivered++;
+        }
+        while (shadowApplication.getNextStoppedService() != null) {
+            if (service != null) {
+                service.destroy();
+                service = null;
+            }
+        }
+        Shadows.shadowOf(Looper.getMainLooper()).idle();
+    }
+
+    /**
+     * Text of the ongoing call notification the service last posted.
+     */
+    String getNotificationText() {
+        CallForegroundService running = getService();
+        if (running == null) {
+            return null;
+        }
+        Notification notification = Shadows.shadowOf(running).getLastForegroundNotification();
+        if (notification == null) {
+            return null;
+        }
+        CharSequence text = notification.extras.getCharSequence(Notification.EXTRA_TEXT);
+        return text != null ? text.toString() : null;
+    }
+
+    @Override
+    public void close() {
+        if (service != null) {
+            service.destroy();
+            service = null;
+        }
+        Shadows.shadowOf(Looper.getMainLooper()).idle();
+        RecordingCrypto.setMasterKey(null);
+    }
+
+    static SecretKeySpec randomKey() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return new SecretKeySpec(key, "AES");
+    }
+
+    /**
+     * Bytes allocated by the current thread so far, or -1 where the JVM
+     * can't tell.
+     */
+    static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    static void report(String name, long operations, long startedNanos, long startedAllocated) {
+        long elapsedNanos = System.nanoTime() - startedNanos;
+        long allocated = startedAllocated >= 0 ? allocatedBytes() - startedAllocated : -1;
+        System.out.println(String.format(
+            "[load] %s: %d ops in %d ms (%.0f ops/s, %.1f us/op, %s bytes/op)",
+            name,
+            operations,
+            elapsedNanos / 1000000,
+            operations * 1e9 / Math.max(1, elapsedNanos),
+            elapsedNanos / 1000.0 / Math.max(1, operations),
+            allocated >= 0 ? String.valueOf(allocated / Math.max(1, operations)) : "n/a"));
+    }
+}
@@ -0,0 +1,177 @@
+package com.voicetel.phone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.os.PowerManager;
+import com.getcapacitor.JSObject;
+import java.util.Random;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowPowerManager;
+
+/**
+ * Scripted state/mute/hold storms through the plugin, checking that the
+ * service holds exactly one wake lock and that the posted notification
+ * always matches the last state sent.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class CallServiceStormTest {
+    private static final String NUMBER = "5551234567";
+    private static final String[] STATES = { "dialing", "ringing", "connecting", "connected" };
+    private static final int STORM_OPERATIONS = 5000;
+
+    private CallServiceHarness harness;
+
+    @Before
+    public void setUp() {
+        harness = new CallServiceHarness();
+    }
+
+    @After
+    public void tearDown() {
+        harness.close();
+    }
+
+    @Test
+    public void stateMuteHoldStormKeepsOneWakeLockAndConsistentNotification() {
+        startCall();
+        PowerManager.WakeLock wakeLock = ShadowPowerManager.getLatestWakeLock();
+        assertNotNull(wakeLock);
+
+        Random random = new Random(42);
+        String state = "dialing";
+        boolean muted = false;
+        boolean held = false;
+
+        long started = System.nanoTime();
+        long allocated = CallServiceHarness.allocatedBytes();
+        for (int i = 0; i < STORM_OPERATIONS; i++) {
+            FakePluginCall call;
+            switch (random.nextInt(3)) {
+                case 0:
+                    state = STATES[random.nextInt(STATES.length)];
+                    call = harness.call("updateCallState", new JSObject().put("state", state));
+                    harness.getPlugin().updateCallState(call);
+                    break;
+                case 1:
+                    muted = !muted;
+                    call = harness.call("setCallMuted", new JSObject().put("muted", muted));
+                    harness.getPlugin().setCallMuted(call);
+                    break;
+                default:
+                    held = !held;
+                    call = harness.call("setCallHeld", new JSObject().put("onHold", held));
+                    harness.getPlugin().setCallHeld(call);
+                    break;
+            }
+            assertTrue("call " + i + " rejected: " + call.getRejection(), call.isResolved());
+            harness.deliver();
+
+            assertSame("wake lock replaced at operation " + i, wakeLock, ShadowPowerManager.getLatestWakeLock());
+            assertEquals("notification out of sync at operation " + i,
+                expectedText(state, muted, held), harness.getNotificationText());
+        }
+        CallServiceHarness.report("state/mute/hold storm", STORM_OPERATIONS, started, allocated);
+
+        assertTrue(wakeLock.isHeld());
+        assertEquals(harness.getService().buildNotificationText(), harness.getNotificationText());
+
+        stopCall();
+        assertFalse(wakeLock.isHeld());
+        assertNull(harness.getService());
+    }
+
+    @Test
+    public void repeatedStartIntentsReuseTheWakeLock() {
+        startCall();
+        PowerManager.WakeLock wakeLock = ShadowPowerManager.getLatestWakeLock();
+
+        long started = System.nanoTime();
+        long allocated = CallServiceHarness.allocatedBytes();
+        for (int i = 0; i < 1000; i++) {
+            startCall();
+        }
+        CallServiceHarness.report("repeated startCall", 1000, started, allocated);
+
+        assertSame(wakeLock, ShadowPowerManager.getLatestWakeLock());
+        assertTrue(wakeLock.isHeld());
+
+        stopCall();
+        assertFalse(wakeLock.isHeld());
+    }
+
+    @Test
+    public void updatesWithoutNumberKeepTheCallerNumber() {
+        startCall();
+        harness.getPlugin().updateCallState(harness.call("updateCallState", new JSObject().put("state", "connected")));
+        harness.getPlugin().setCallMuted(harness.call("setCallMuted", new JSObject().put("muted", true)));
+        harness.deliver();
+
+        assertEquals(NUMBER + " • Muted", harness.getNotificationText());
+    }
+
+    @Test
+    public void startStopChurnLeavesNothingHeld() {
+        long started = System.nanoTime();
+        long allocated = CallServiceHarness.allocatedBytes();
+        for (int i = 0; i < 500; i++) {
+            startCall();
+            PowerManager.WakeLock wakeLock = ShadowPowerManager.getLatestWakeLock();
+            harness.getPlugin().updateCallState(harness.call("updateCallState", new JSObject().put("state", "connected")));
+            harness.deliver();
+            assertTrue(CallClock.isRunning());
+
+            stopCall();
+            assertFalse("wake lock leaked in cycle " + i, wakeLock.isHeld());
+            assertFalse(CallClock.isRunning());
+            assertNull(harness.getService());
+        }
+        CallServiceHarness.report("start/connect/stop cycles", 500, started, allocated);
+    }
+
+    private void startCall() {
+        FakePluginCall call = harness.call("startCall", new JSObject()
+            .put("callNumber", NUMBER)
+            // The link monitor samples the (shadowed) network on its own schedule; keep it out of the text
+            .put("showPoorConnection", false));
+        harness.getPlugin().startCall(call);
+        assertTrue(call.isResolved());
+        harness.deliver();
+    }
+
+    private void stopCall() {
+        FakePluginCall call = harness.call("stopCall", null);
+        harness.getPlugin().stopCall(call);
+        assertTrue(call.isResolved());
+        harness.deliver();
+    }
+
+    /**
+     * What CallForegroundService.buildNotificationText should show for a
+     * call to NUMBER in the given state (hold time is not excluded, so the
+     * clock never shows in the text).
+     */
+    private static String expectedText(String state, boolean muted, boolean held) {
+        switch (state) {
+            case "dialing":
+                return NUMBER + " • Dialing...";
+            case "ringing":
+                return NUMBER + " • Ringing...";
+            case "connecting":
+                return NUMBER + " • Connecting...";
+            default:
+                if (held) {
+                    return NUMBER + " • On Hold";
+                }
+                return muted ? NUMBER + " • Muted" : NUMBER;
+        }
+    }
+}
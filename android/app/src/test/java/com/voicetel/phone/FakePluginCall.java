@@ -0,0 +1,46 @@
+package com.voicetel.phone;
+
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+
+/**
+ * PluginCall that records its outcome instead of posting it to a WebView,
+ * so CallServicePlugin methods can be invoked directly from JVM tests.
+ */
+final class FakePluginCall extends PluginCall {
+    private volatile JSObject result;
+    private volatile String rejection;
+    private volatile boolean resolved;
+
+    FakePluginCall(String methodName, JSObject options) {
+        super(null, "CallService", "test", methodName, options);
+    }
+
+    @Override
+    public void resolve(JSObject data) {
+        result = data;
+        resolved = true;
+    }
+
+    @Override
+    public void resolve() {
+        resolved = true;
+    }
+
+    @Override
+    public void reject(String msg) {
+        rejection = msg;
+    }
+
+    boolean isResolved() {
+        return resolved;
+    }
+
+    JSObject getResult() {
+        return result;
+    }
+
+    String getRejection() {
+        return rejection;
+    }
+}
@@ -0,0 +1,167 @@
+package com.voicetel.phone;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.Random;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Round trips and tampering cases for the chunked recording format, using
+ * an injected master key in place of the Android Keystore.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class RecordingCryptoTest {
+    private static final int CHUNK = RecordingCrypto.CHUNK_SIZE;
+    private static final int SEALED_CHUNK = CHUNK + 16;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void setUp() {
+        RecordingCrypto.setMasterKey(CallServiceHarness.randomKey());
+    }
+
+    @After
+    public void tearDown() {
+        RecordingCrypto.setMasterKey(null);
+    }
+
+    @Test
+    public void roundTripsAnExactMultipleOfTheChunkSize() throws Exception {
+        byte[] payload = randomBytes(CHUNK * 2);
+        File file = encrypt(payload);
+
+        assertTrue(RecordingCrypto.isEncrypted(file));
+        assertEquals(payload.length, RecordingCrypto.plaintextLength(file));
+        assertArrayEquals(payload, decrypt(file));
+    }
+
+    @Test
+    public void roundTripsAPartialFinalChunk() throws Exception {
+        byte[] payload = randomBytes(CHUNK * 2 + 1234);
+        File file = encrypt(payload);
+
+        assertEquals(payload.length, RecordingCrypto.plaintextLength(file));
+        assertArrayEquals(payload, decrypt(file));
+    }
+
+    @Test
+    public void roundTripsEmptyInput() throws Exception {
+        File file = encrypt(new byte[0]);
+
+        assertTrue(RecordingCrypto.isEncrypted(file));
+        assertEquals(0, RecordingCrypto.plaintextLength(file));
+        assertArrayEquals(new byte[0], decrypt(file));
+    }
+
+    @Test
+    public void rejectsAFileTruncatedMidChunk() throws Exception {
+        File file = encrypt(randomBytes(CHUNK * 3));
+        truncate(file, file.length() - 100);
+
+        assertUnreadable(file);
+    }
+
+    @Test
+    public void rejectsAFileTruncatedAtAChunkBoundary() throws Exception {
+        // The chunk left last was sealed as non-final, so it must not pass as the end
+        File file = encrypt(randomBytes(CHUNK * 3));
+        truncate(file, file.length() - SEALED_CHUNK);
+
+        assertUnreadable(file);
+    }
+
+    @Test
+    public void rejectsReorderedChunks() throws Exception {
+        File file = encrypt(randomBytes(CHUNK * 3));
+        long dataStart = file.length() - 3L * SEALED_CHUNK;
+
+        byte[] first = new byte[SEALED_CHUNK];
+        byte[] second = new byte[SEALED_CHUNK];
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(dataStart);
+            raf.readFully(first);
+            raf.readFully(second);
+            raf.seek(dataStart);
+            raf.write(second);
+            raf.write(first);
+        }
+
+        assertUnreadable(file);
+    }
+
+    @Test
+    public void readsLegacyPlaintextAsIs() throws Exception {
+        byte[] payload = randomBytes(1000);
+        File file = folder.newFile("legacy.webm");
+        try (OutputStream out = new java.io.FileOutputStream(file)) {
+            out.write(payload);
+        }
+
+        assertEquals(payload.length, RecordingCrypto.plaintextLength(file));
+        assertArrayEquals(payload, decrypt(file));
+    }
+
+    private File encrypt(byte[] payload) throws Exception {
+        File file = folder.newFile();
+        try (OutputStream out = RecordingCrypto.openOutput(file)) {
+            // Uneven writes, so chunk boundaries fall mid-write
+            int off = 0;
+            while (off < payload.length) {
+                int n = Math.min(7919, payload.length - off);
+                out.write(payload, off, n);
+                off += n;
+            }
+        }
+        return file;
+    }
+
+    private static byte[] decrypt(File file) throws Exception {
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        try (InputStream in = RecordingCrypto.openInput(file)) {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                plain.write(buffer, 0, read);
+            }
+        }
+        return plain.toByteArray();
+    }
+
+    private static void assertUnreadable(File file) throws Exception {
+        try {
+            decrypt(file);
+            fail("tampered recording decrypted without error");
+        } catch (IOException expected) {
+            // Authentication failure or truncation
+        }
+    }
+
+    private static void truncate(File file, long length) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(length);
+        }
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,146 @@
+package com.voicetel.phone;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.util.Base64;
+import com.getcapacitor.JSObject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Overlapping saveRecording calls from several threads, as happens when
+ * JS saves the recording while a previous save is still in flight.
+ * Every save must resolve and every file must read back intact; when the
+ * saves share a filename, the file must hold exactly one of them.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class RecordingSaveStormTest {
+    private static final int THREADS = 8;
+    private static final int SAVES_PER_THREAD = 25;
+    private static final int PAYLOAD_BYTES = 96 * 1024;
+
+    private CallServiceHarness harness;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        harness = new CallServiceHarness();
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        harness.close();
+    }
+
+    @Test
+    public void overlappingSavesAllLandIntact() throws Exception {
+        List<Future<?>> saves = new ArrayList<>();
+        List<byte[]> payloads = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 0; i < THREADS * SAVES_PER_THREAD; i++) {
+            byte[] payload = new byte[PAYLOAD_BYTES];
+            random.nextBytes(payload);
+            payloads.add(payload);
+        }
+
+        long started = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            saves.add(executor.submit(() -> {
+                for (int i = 0; i < SAVES_PER_THREAD; i++) {
+                    int index = thread * SAVES_PER_THREAD + i;
+                    FakePluginCall call = harness.call("saveRecording", new JSObject()
+                        .put("filename", filenameFor(index))
+                        .put("data", Base64.encodeToString(payloads.get(index), Base64.NO_WRAP))
+                        .put("mimeType", "audio/webm"));
+                    harness.getPlugin().saveRecording(call);
+                    assertTrue("save " + index + " rejected: " + call.getRejection(), call.isResolved());
+                }
+            }));
+        }
+        for (Future<?> save : saves) {
+            save.get(60, TimeUnit.SECONDS);
+        }
+        System.out.println(String.format("[load] overlapping saves: %.1f MB/s",
+            payloads.size() * (double) PAYLOAD_BYTES / 1048576 / ((System.nanoTime() - started) / 1e9)));
+        CallServiceHarness.report("overlapping saves", payloads.size(), started, -1);
+
+        long readStarted = System.nanoTime();
+        long allocated = CallServiceHarness.allocatedBytes();
+        for (int i = 0; i < payloads.size(); i++) {
+            assertArrayEquals("recording " + i + " corrupted",
+                payloads.get(i), harness.getActivity().readRecordingBytes(filenameFor(i)));
+        }
+        CallServiceHarness.report("recording reads", payloads.size(), readStarted, allocated);
+
+        String[] saved = harness.getActivity().getRecordingsDirectory().list((dir, name) -> name.endsWith(".webm"));
+        assertEquals(payloads.size(), saved.length);
+    }
+
+    @Test
+    public void overlappingSavesOfOneFilenameLeaveOneIntactCopy() throws Exception {
+        String filename = "storm-same.webm";
+        List<Future<?>> saves = new ArrayList<>();
+        List<byte[]> payloads = new ArrayList<>();
+        Random random = new Random(11);
+        for (int i = 0; i < THREADS * SAVES_PER_THREAD; i++) {
+            // Different lengths, so a torn write can't pass for a whole payload
+            byte[] payload = new byte[PAYLOAD_BYTES + i * 37];
+            random.nextBytes(payload);
+            payloads.add(payload);
+        }
+
+        long started = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            saves.add(executor.submit(() -> {
+                for (int i = 0; i < SAVES_PER_THREAD; i++) {
+                    int index = thread * SAVES_PER_THREAD + i;
+                    FakePluginCall call = harness.call("saveRecording", new JSObject()
+                        .put("filename", filename)
+                        .put("data", Base64.encodeToString(payloads.get(index), Base64.NO_WRAP))
+                        .put("mimeType", "audio/webm"));
+                    harness.getPlugin().saveRecording(call);
+                    assertTrue("save " + index + " rejected: " + call.getRejection(), call.isResolved());
+                }
+            }));
+        }
+        for (Future<?> save : saves) {
+            save.get(60, TimeUnit.SECONDS);
+        }
+        CallServiceHarness.report("same-filename saves", payloads.size(), started, -1);
+
+        byte[] saved = harness.getActivity().readRecordingBytes(filename);
+        boolean matches = false;
+        for (byte[] payload : payloads) {
+            if (Arrays.equals(payload, saved)) {
+                matches = true;
+                break;
+            }
+        }
+        assertTrue("recording is not any one of the saved payloads (" + saved.length + " bytes)", matches);
+
+        String[] temps = harness.getActivity().getRecordingsDirectory().list((dir, name) -> name.endsWith(".tmp"));
+        assertEquals("temp files left behind: " + Arrays.toString(temps), 0, temps.length);
+    }
+
+    private static String filenameFor(int index) {
+        return "storm-" + index + ".webm";
+    }
+}
@@ -0,0 +1,43 @@
+package com.voicetel.phone.macrobenchmark;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import kotlin.Unit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Generates the startup baseline profile consumed by :app through
+ * profileinstaller. Requires a rooted device/emulator or API 33+.
+ *
+ * Run with:
+ *   ./gradlew :macrobenchmark:connectedBenchmarkAndroidTest \
+ *       -Pandroid.testInstrumentationRunnerArguments.class=com.voicetel.phone.macrobenchmark.BaselineProfileGenerator
+ * then copy the generated *-baseline-prof.txt from
+ * macrobenchmark/build/outputs/connected_android_test_additional_output/
+ * over app/src/main/baseline-prof.txt.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class BaselineProfileGenerator {
+    @Rule
+    public BaselineProfileRule baselineProfileRule = new BaselineProfileRule();
+
+    @Test
+    public void generate() {
+        baselineProfileRule.collect(
+            DialerJourney.PACKAGE_NAME,
+            scope -> {
+                DialerJourney.grantPermissions(scope);
+                scope.pressHome();
+                scope.startActivityAndWait();
+                DialerJourney.waitForDialPad(scope);
+                DialerJourney.dial(scope, "5551234567");
+                DialerJourney.clearNumber(scope);
+                return Unit.INSTANCE;
+            }
+        );
+    }
+}
@@ -0,0 +1,99 @@
+package com.voicetel.phone.macrobenchmark;
+
+import static org.junit.Assume.assumeTrue;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.uiautomator.UiDevice;
+import java.util.Collections;
+import kotlin.Unit;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Frame timing on the call screen: entering a number on the dial pad, and
+ * the in-call controls during a live call.
+ *
+ * The in-call test needs a SIP account already configured in the app and a
+ * number that answers (an echo test line works), passed as
+ *   -Pandroid.testInstrumentationRunnerArguments.callNumber=&lt;number&gt;
+ * It is skipped without one.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class CallScreenFrameBenchmark {
+    private static final int ITERATIONS = 5;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @After
+    public void tearDown() {
+        DialerJourney.hangUp(UiDevice.getInstance(InstrumentationRegistry.getInstrumentation()));
+    }
+
+    @Test
+    public void dialNumber() {
+        benchmarkRule.measureRepeated(
+            DialerJourney.PACKAGE_NAME,
+            Collections.singletonList(new FrameTimingMetric()),
+            new CompilationMode.Partial(BaselineProfileMode.Require),
+            StartupMode.WARM,
+            ITERATIONS,
+            scope -> {
+                DialerJourney.grantPermissions(scope);
+                scope.pressHome();
+                scope.startActivityAndWait();
+                DialerJourney.waitForDialPad(scope);
+                return Unit.INSTANCE;
+            },
+            scope -> {
+                DialerJourney.dial(scope, "5551234567");
+                DialerJourney.clearNumber(scope);
+                return Unit.INSTANCE;
+            }
+        );
+    }
+
+    @Test
+    public void inCallControls() {
+        String callNumber = InstrumentationRegistry.getArguments().getString("callNumber");
+        assumeTrue("No callNumber instrumentation argument", callNumber != null && !callNumber.isEmpty());
+
+        benchmarkRule.measureRepeated(
+            DialerJourney.PACKAGE_NAME,
+            Collections.singletonList(new FrameTimingMetric()),
+            new CompilationMode.Partial(BaselineProfileMode.Require),
+            // No restart between iterations: the call placed in the first
+            // setup stays up and is hung up in tearDown
+            null,
+            ITERATIONS,
+            scope -> {
+                DialerJourney.grantPermissions(scope);
+                if (!DialerJourney.isInCall(scope.getDevice())) {
+                    scope.startActivityAndWait();
+                    DialerJourney.waitForDialPad(scope);
+                    DialerJourney.clearNumber(scope);
+                    DialerJourney.dial(scope, callNumber);
+                    DialerJourney.placeCall(scope);
+                }
+                return Unit.INSTANCE;
+            },
+            scope -> {
+                DialerJourney.toggle(scope, "Mute", "Unmute");
+                DialerJourney.toggle(scope, "Unmute", "Mute");
+                DialerJourney.toggle(scope, "Hold", "Resume");
+                DialerJourney.toggle(scope, "Resume", "Hold");
+                return Unit.INSTANCE;
+            }
+        );
+    }
+}
@@ -0,0 +1,109 @@
+package com.voicetel.phone.macrobenchmark;
+
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+/**
+ * UI steps shared by the benchmarks. The dial pad lives in the WebView, so
+ * keys are located through the accessibility tree by their label.
+ */
+final class DialerJourney {
+    static final String PACKAGE_NAME = "com.voicetel.phone";
+    private static final long DIAL_PAD_TIMEOUT_MS = 15000;
+    private static final long CALL_CONNECT_TIMEOUT_MS = 30000;
+    private static final long CONTROL_TIMEOUT_MS = 5000;
+
+    private DialerJourney() {
+    }
+
+    /**
+     * Pre-grants the permissions MainActivity prompts for, so no system
+     * dialog covers the dial pad during measurement.
+     */
+    static void grantPermissions(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        try {
+            device.executeShellCommand("pm grant " + PACKAGE_NAME + " android.permission.RECORD_AUDIO");
+            device.executeShellCommand("pm grant " + PACKAGE_NAME + " android.permission.POST_NOTIFICATIONS");
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to grant permissions", e);
+        }
+    }
+
+    /**
+     * Waits until the WebView has rendered the dial pad; the app reports
+     * fully drawn at the same point, which ends the TTFD measurement.
+     */
+    static void waitForDialPad(MacrobenchmarkScope scope) {
+        if (!scope.getDevice().wait(Until.hasObject(By.clickable(true).text("#")), DIAL_PAD_TIMEOUT_MS)) {
+            throw new IllegalStateException("Dial pad did not appear within " + DIAL_PAD_TIMEOUT_MS + "ms");
+        }
+    }
+
+    static void dial(MacrobenchmarkScope scope, String digits) {
+        UiDevice device = scope.getDevice();
+        for (char digit : digits.toCharArray()) {
+            UiObject2 key = device.findObject(By.clickable(true).text(String.valueOf(digit)));
+            if (key == null) {
+                throw new IllegalStateException("Dial pad key not found: " + digit);
+            }
+            key.click();
+            device.waitForIdle();
+        }
+    }
+
+    static void clearNumber(MacrobenchmarkScope scope) {
+        UiObject2 clear = scope.getDevice().findObject(By.clickable(true).text("Clear"));
+        if (clear != null) {
+            clear.click();
+            scope.getDevice().waitForIdle();
+        }
+    }
+
+    /**
+     * Presses the Call button and waits until the call screen reports the
+     * call as connected.
+     */
+    static void placeCall(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        UiObject2 call = device.findObject(By.clickable(true).textEndsWith("Call"));
+        if (call == null) {
+            throw new IllegalStateException("Call button not found");
+        }
+        call.click();
+        if (!device.wait(Until.hasObject(By.text("Call in progress")), CALL_CONNECT_TIMEOUT_MS)) {
+            throw new IllegalStateException("Call did not connect within " + CALL_CONNECT_TIMEOUT_MS + "ms");
+        }
+    }
+
+    static boolean isInCall(UiDevice device) {
+        return device.hasObject(By.clickable(true).text("Hang Up"));
+    }
+
+    /**
+     * Clicks a call screen button by its label and waits for it to change
+     * to the label the next state shows (e.g. Hold -> Resume).
+     */
+    static void toggle(MacrobenchmarkScope scope, String label, String nextLabel) {
+        UiDevice device = scope.getDevice();
+        UiObject2 button = device.findObject(By.clickable(true).text(label));
+        if (button == null) {
+            throw new IllegalStateException("Call control not found: " + label);
+        }
+        button.click();
+        if (!device.wait(Until.hasObject(By.clickable(true).text(nextLabel)), CONTROL_TIMEOUT_MS)) {
+            throw new IllegalStateException(label + " did not switch to " + nextLabel);
+        }
+    }
+
+    static void hangUp(UiDevice device) {
+        UiObject2 hangUp = device.findObject(By.clickable(true).text("Hang Up"));
+        if (hangUp != null) {
+            hangUp.click();
+            device.wait(Until.gone(By.clickable(true).text("Hang Up")), CONTROL_TIMEOUT_MS);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.voicetel.phone.macrobenchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.filters.LargeTest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import kotlin.Unit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+/**
+ * Cold, warm and hot startup of MainActivity, with and without the baseline
+ * profile. timeToInitialDisplayMs covers onCreate up to the first frame;
+ * timeToFullDisplayMs runs until the dial pad is interactive (reportFullyDrawn
+ * from app.js).
+ *
+ * Run with: ./gradlew :macrobenchmark:connectedBenchmarkAndroidTest
+ */
+@LargeTest
+@RunWith(Parameterized.class)
+public class StartupBenchmark {
+    private static final int ITERATIONS = 10;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    private final StartupMode startupMode;
+    private final boolean useBaselineProfile;
+
+    public StartupBenchmark(StartupMode startupMode, boolean useBaselineProfile) {
+        this.startupMode = startupMode;
+        this.useBaselineProfile = useBaselineProfile;
+    }
+
+    @Parameterized.Parameters(name = "{0}-baselineProfile={1}")
+    public static List<Object[]> parameters() {
+        List<Object[]> parameters = new ArrayList<>();
+        for (StartupMode mode : new StartupMode[]{StartupMode.COLD, StartupMode.WARM, StartupMode.HOT}) {
+            parameters.add(new Object[]{mode, false});
+            parameters.add(new Object[]{mode, true});
+        }
+        return parameters;
+    }
+
+    @Test
+    public void startup() {
+        CompilationMode compilationMode = useBaselineProfile
+            ? new CompilationMode.Partial(BaselineProfileMode.Require)
+            : new CompilationMode.None();
+
+        benchmarkRule.measureRepeated(
+            DialerJourney.PACKAGE_NAME,
+            Collections.singletonList(new StartupTimingMetric()),
+            compilationMode,
+            startupMode,
+            ITERATIONS,
+            scope -> {
+                DialerJourney.grantPermissions(scope);
+                scope.pressHome();
+                return Unit.INSTANCE;
+            },
+            scope -> {
+                scope.startActivityAndWait();
+                DialerJourney.waitForDialPad(scope);
+                return Unit.INSTANCE;
+            }
+        );
+    }
+}
@@ -0,0 +1,85 @@
+package com.voicetel.phone.microbenchmark;
+
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.content.ServiceConnection;
+import android.os.IBinder;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import androidx.test.platform.app.InstrumentationRegistry;
+import com.voicetel.phone.CallForegroundService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Building the ongoing-call notification, which happens on every call
+ * state, mute and hold change.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class CallNotificationBenchmark {
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private Context context;
+    private ServiceConnection connection;
+    private CallForegroundService service;
+
+    @Before
+    public void setUp() throws Exception {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        CountDownLatch bound = new CountDownLatch(1);
+        AtomicReference<CallForegroundService> boundService = new AtomicReference<>();
+        connection = new ServiceConnection() {
+            @Override
+            public void onServiceConnected(ComponentName name, IBinder binder) {
+                boundService.set(((CallForegroundService.LocalBinder) binder).getService());
+                bound.countDown();
+            }
+
+            @Override
+            public void onServiceDisconnected(ComponentName name) {
+            }
+        };
+        context.bindService(new Intent(context, CallForegroundService.class), connection, Context.BIND_AUTO_CREATE);
+        if (!bound.await(5, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("CallForegroundService did not bind");
+        }
+        service = boundService.get();
+
+        // Connected with mute/hold actions is the largest notification
+        service.updateCallNumber("5551234567");
+        service.updateCallState("connected");
+        service.updateMuteState(true);
+    }
+
+    @After
+    public void tearDown() {
+        context.unbindService(connection);
+    }
+
+    @Test
+    public void createNotification() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            service.createNotification();
+        }
+    }
+
+    @Test
+    public void buildNotificationText() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            service.buildNotificationText();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.voicetel.phone.microbenchmark;
+
+import androidx.test.core.app.ActivityScenario;
+import com.voicetel.phone.MainActivity;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Launches the real MainActivity (and with it the Capacitor bridge) so the
+ * benchmarks exercise the native paths exactly as the plugin calls them.
+ */
+final class MainActivityHolder implements AutoCloseable {
+    private final ActivityScenario<MainActivity> scenario;
+    private final MainActivity activity;
+
+    MainActivityHolder() {
+        scenario = ActivityScenario.launch(MainActivity.class);
+        AtomicReference<MainActivity> launched = new AtomicReference<>();
+        scenario.onActivity(launched::set);
+        activity = launched.get();
+    }
+
+    MainActivity getActivity() {
+        return activity;
+    }
+
+    @Override
+    public void close() {
+        scenario.close();
+    }
+}
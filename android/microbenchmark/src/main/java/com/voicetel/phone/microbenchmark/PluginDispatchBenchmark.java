@@ -0,0 +1,83 @@
+package com.voicetel.phone.microbenchmark;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+import com.getcapacitor.PluginHandle;
+import com.voicetel.phone.CallServicePlugin;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Cost of Capacitor's reflective dispatch into CallServicePlugin, compared
+ * with calling the same @PluginMethod directly. The difference is the
+ * per-call bridge overhead on the native side.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class PluginDispatchBenchmark {
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private MainActivityHolder holder;
+    private PluginHandle handle;
+    private CallServicePlugin plugin;
+
+    @Before
+    public void setUp() {
+        holder = new MainActivityHolder();
+        handle = holder.getActivity().getBridge().getPlugin("CallService");
+        plugin = (CallServicePlugin) handle.getInstance();
+    }
+
+    @After
+    public void tearDown() {
+        holder.close();
+    }
+
+    @Test
+    public void dispatchThroughPluginHandle() throws Exception {
+        PluginCall call = new DiscardingPluginCall("getSupportedFormats");
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            handle.invoke("getSupportedFormats", call);
+        }
+    }
+
+    @Test
+    public void directMethodCall() {
+        PluginCall call = new DiscardingPluginCall("getSupportedFormats");
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            plugin.getSupportedFormats(call);
+        }
+    }
+
+    /**
+     * PluginCall that drops results instead of posting them to the WebView,
+     * so only the native side is measured.
+     */
+    private static class DiscardingPluginCall extends PluginCall {
+        DiscardingPluginCall(String methodName) {
+            super(null, "CallService", "benchmark", methodName, new JSObject());
+        }
+
+        @Override
+        public void resolve(JSObject data) {
+        }
+
+        @Override
+        public void resolve() {
+        }
+
+        @Override
+        public void reject(String msg) {
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.voicetel.phone.microbenchmark;
+
+import android.util.Base64;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.filters.LargeTest;
+import com.voicetel.phone.MainActivity;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+/**
+ * Base64 save and data-URL load of call recordings at realistic sizes.
+ * recording.js records at 128 kbps, so one minute is ~960 KB of audio.
+ * Sizes stop at 10 minutes: each iteration holds the raw bytes, their
+ * base64 string and the decoded copy at once, and a 60 minute case (~190 MB)
+ * can OOM and take the rest of the instrumentation run down with it.
+ * Waveform decoding is disabled; the random payload isn't decodable audio.
+ */
+@LargeTest
+@RunWith(Parameterized.class)
+public class RecordingFileBenchmark {
+    private static final int BYTES_PER_MINUTE = 128000 / 8 * 60;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private final int minutes;
+    private MainActivityHolder holder;
+    private String filename;
+    private String base64Data;
+
+    public RecordingFileBenchmark(int minutes) {
+        this.minutes = minutes;
+    }
+
+    @Parameterized.Parameters(name = "{0}min")
+    public static List<Object[]> parameters() {
+        return Arrays.asList(new Object[][]{{1}, {10}});
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        holder = new MainActivityHolder();
+        holder.getActivity().getWaveformCache().setSchedulingEnabled(false);
+        filename = "benchmark_" + minutes + "min.webm";
+
+        byte[] audio = new byte[BYTES_PER_MINUTE * minutes];
+        new Random(minutes).nextBytes(audio);
+        base64Data = Base64.encodeToString(audio, Base64.NO_WRAP);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        holder.getActivity().deleteRecordingFile(filename);
+        holder.getActivity().getWaveformCache().setSchedulingEnabled(true);
+        holder.close();
+    }
+
+    @Test
+    public void saveRecordingFile() throws Exception {
+        MainActivity activity = holder.getActivity();
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            activity.saveRecordingFile(filename, base64Data, "audio/webm");
+        }
+    }
+
+    @Test
+    public void getRecordingFileAsDataUrl() throws Exception {
+        MainActivity activity = holder.getActivity();
+        activity.saveRecordingFile(filename, base64Data, "audio/webm");
+        base64Data = null; // keep the heap for the read path
+
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            activity.getRecordingFileAsDataUrl(filename);
+        }
+    }
+}
@@ -33,6 +33,7 @@ async function initializeApp() {
 
   // Setup app state listeners for re-registration
   window.setupAppStateListeners();
+  window.setupLinkQualityListener();
 
   // Setup audio session for lock screen continuity
   window.setupAudioSession();
@@ -145,6 +146,14 @@ async function initializeApp() {
 
   // Setup keyboard detection for hiding/showing dialpad
   setupKeyboardDetection();
+
+  // Dial pad is interactive now - marks time-to-full-display for startup benchmarks
+  if (
+    window.getPlatform() === "android" &&
+    window.Capacitor?.Plugins?.CallService?.reportFullyDrawn
+  ) {
+    window.Capacitor.Plugins.CallService.reportFullyDrawn().catch(() => {});
+  }
 }
 
 // Detect soft keyboard show/hide and toggle dialpad visibility
@@ -54,10 +54,15 @@ window.createRingingTone = function () {
   };
 };
 
-window.startRinging = function () {
+window.startRinging = function (isIncoming = false) {
   document.getElementById("ringingIndicator").style.display = "block";
   document.getElementById("callStatus").textContent = "Ringing...";
 
+  // Android rings incoming calls natively (CallRinger) with the notification
+  if (isIncoming && window.getPlatform() === "android") {
+    return;
+  }
+
   try {
     window.ringingAudio = createRingingTone();
   } catch (e) {
@@ -115,6 +115,7 @@ window.toggleHold = function () {
               window.log(
                 `✅ [${isIOS ? "iOS" : "Android"}] Native hold state updated: true`,
               );
+              window.syncCallClock();
             })
             .catch((err) => {
               window.log(
@@ -156,6 +157,7 @@ window.toggleHold = function () {
               window.log(
                 `✅ [${isIOS ? "iOS" : "Android"}] Native hold state updated: false`,
               );
+              window.syncCallClock();
             })
             .catch((err) => {
               window.log(
@@ -188,6 +190,8 @@ window.endCall = async function () {
   releaseWakeLock();
   // Stop call timer
   stopCallTimer();
+  // Persist the call's quality samples; the ID is linked from history
+  const qualityId = window.stopQualityMonitor();
 
   // Stop Android foreground service
   stopCallService();
@@ -207,6 +211,7 @@ window.endCall = async function () {
         num,
         "Connected",
         recordingFilename,
+        qualityId,
       );
     } else if (window.__callDirection === "incoming") {
       const num =
@@ -218,6 +223,7 @@ window.endCall = async function () {
         num,
         "Connected",
         recordingFilename,
+        qualityId,
       );
     }
   } catch (e) {
@@ -288,9 +294,15 @@ window.endCall = async function () {
   handleBluetoothDisconnect();
 };
 
+// Call duration is read from the native CallClock on Android (monotonic,
+// optionally excluding hold time) rather than counted here. The display only
+// ticks while the page is visible, so long backgrounded calls cause no
+// per-second JS wakeups; it resyncs from native when shown again.
 window.startCallTimer = function () {
-  window.callStartTime = Date.now();
-  window.callTimer = setInterval(updateCallDuration, 1000);
+  window.callStartTime = performance.now();
+  window.callClockPaused = false;
+  window.updateCallTimerTicking();
+  window.syncCallClock();
 };
 
 window.stopCallTimer = function () {
@@ -298,12 +310,53 @@ window.stopCallTimer = function () {
     clearInterval(window.callTimer);
     window.callTimer = null;
   }
+  window.callStartTime = null;
+  window.callClockPaused = false;
   document.getElementById("callDuration").textContent = "00:00";
 };
 
+window.syncCallClock = async function () {
+  const CallService = window.Capacitor?.Plugins?.CallService;
+  if (window.getPlatform() !== "android" || !CallService?.getCallClock) {
+    return;
+  }
+
+  try {
+    const clock = await CallService.getCallClock();
+    // Native starts on the "connected" state update, which may still be in flight
+    if (!clock.running || !window.callStartTime) {
+      return;
+    }
+    window.callStartTime = performance.now() - clock.elapsedMs;
+    window.callClockPaused = clock.paused;
+    window.updateCallDuration();
+  } catch (error) {
+    window.log("Failed to read call clock: " + error.message);
+  }
+};
+
+window.updateCallTimerTicking = function () {
+  const shouldTick =
+    window.callStartTime && document.visibilityState === "visible";
+  if (shouldTick && !window.callTimer) {
+    window.updateCallDuration();
+    window.callTimer = setInterval(updateCallDuration, 1000);
+  } else if (!shouldTick && window.callTimer) {
+    clearInterval(window.callTimer);
+    window.callTimer = null;
+  }
+};
+
+document.addEventListener("visibilitychange", () => {
+  window.updateCallTimerTicking();
+  if (document.visibilityState === "visible" && window.callStartTime) {
+    window.syncCallClock();
+  }
+});
+
 window.updateCallDuration = function () {
-  if (!window.callStartTime) return;
-  const duration = Math.floor((Date.now() - callStartTime) / 1000);
+  if (!window.callStartTime || window.callClockPaused) return;
+  const duration = Math.floor((performance.now() - callStartTime) / 1000);
   const minutes = Math.floor(duration / 60);
   const seconds = duration % 60;
   document.getElementById("callDuration").textContent =
@@ -230,7 +230,7 @@ window.handleIncomingCall = function (session) {
 
   document.getElementById("incomingCall").classList.add("active");
   window.hideDialpad();
-  window.startRinging();
+  window.startRinging(true);
   window.log("SIP/2.0 180 Ringing");
 
   window.log("SIP INVITE received - awaiting answer");
@@ -258,8 +258,47 @@ window.handleIncomingCall = function (session) {
   }, INCOMING_CALL_TIMEOUT_MS);
 
   window.setupIncomingSessionHandlers(session);
+
+  replayPendingNativeCall(session, callerUri).catch((error) => {
+    window.log("Failed to replay native call action: " + error.message);
+  });
 };
 
+/**
+ * Replays an Answer/Decline tapped on the native notification while the
+ * page was starting (cold start), but only onto the INVITE from the same
+ * caller; a pending record for anyone else is dropped and this call rings.
+ */
+async function replayPendingNativeCall(session, callerUri) {
+  // Already registered apps never went through register(); drain it here too
+  if (window.loadPendingNativeCall) {
+    await window.loadPendingNativeCall();
+  }
+  const pendingNative = window.takePendingNativeCall
+    ? window.takePendingNativeCall()
+    : null;
+  if (!pendingNative || window.incomingSession !== session) {
+    return;
+  }
+
+  const digits = (value) => String(value || "").replace(/\D/g, "").slice(-10);
+  const pendingDigits = digits(pendingNative.callerNumber);
+  if (!pendingDigits || pendingDigits !== digits(callerUri)) {
+    window.log(
+      `Ignoring native call action for ${pendingNative.callerNumber} (INVITE is from ${callerUri})`,
+    );
+    return;
+  }
+
+  if (pendingNative.state === "answered") {
+    window.log("Answering call already accepted from notification");
+    window.answerCall();
+  } else if (pendingNative.state === "declined") {
+    window.log("Declining call already rejected from notification");
+    window.declineCall();
+  }
+}
+
 window.setupIncomingSessionHandlers = function (session) {
   // Track if this incoming call was answered
   let wasAnswered = false;
@@ -834,6 +873,7 @@ window.setupSessionHandlers = function (session) {
       "Type or press dialpad for DTMF";
     document.getElementById("callNumber").focus();
     startCallTimer();
+    window.startQualityMonitor(session);
     document.getElementById("callStatus").textContent = "Call in progress";
 
     if (isIOS && !callKitAudioSessionActive) {
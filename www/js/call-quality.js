@@ -0,0 +1,181 @@
+// ========================================
+// CALL QUALITY MODULE
+// ========================================
+// Samples WebRTC getStats() during a call and ships the samples to the
+// native CallQualityStore in batches (Android). Each sample is a flat
+// frame: t (ms since connect), rttMs, jitterMs, lossPct, bitrateKbps.
+
+const QUALITY_SAMPLE_INTERVAL_MS = 2000;
+const QUALITY_BATCH_SAMPLES = 15; // ~30s of samples per bridge call
+const QUALITY_FIELDS = 5;
+
+let qualityMonitor = null;
+
+function isQualityStoreAvailable() {
+  return (
+    window.getPlatform() === "android" &&
+    !!window.Capacitor?.Plugins?.CallService?.recordCallQuality
+  );
+}
+
+async function sampleCallQuality(monitor) {
+  const stats = await monitor.pc.getStats();
+  let rttMs = 0;
+  let jitterMs = 0;
+  let packetsLost = 0;
+  let packetsReceived = 0;
+  let bytesReceived = 0;
+
+  stats.forEach((report) => {
+    if (
+      report.type === "candidate-pair" &&
+      report.state === "succeeded" &&
+      report.currentRoundTripTime !== undefined
+    ) {
+      rttMs = report.currentRoundTripTime * 1000;
+    } else if (report.type === "inbound-rtp" && report.kind === "audio") {
+      jitterMs = (report.jitter || 0) * 1000;
+      packetsLost = report.packetsLost || 0;
+      packetsReceived = report.packetsReceived || 0;
+      bytesReceived = report.bytesReceived || 0;
+    }
+  });
+
+  const now = performance.now();
+  const last = monitor.last;
+  const lostDelta = packetsLost - last.packetsLost;
+  const receivedDelta = packetsReceived - last.packetsReceived;
+  const lossPct =
+    lostDelta + receivedDelta > 0
+      ? (Math.max(0, lostDelta) * 100) / (lostDelta + receivedDelta)
+      : 0;
+  const bitrateKbps =
+    last.time > 0
+      ? ((bytesReceived - last.bytesReceived) * 8) / (now - last.time)
+      : 0;
+  monitor.last = { time: now, packetsLost, packetsReceived, bytesReceived };
+
+  monitor.buffer.push(
+    Math.round(now - monitor.startedAt),
+    Math.round(rttMs * 10) / 10,
+    Math.round(jitterMs * 10) / 10,
+    Math.round(lossPct * 100) / 100,
+    Math.round(Math.max(0, bitrateKbps) * 10) / 10,
+  );
+
+  if (monitor.buffer.length >= QUALITY_BATCH_SAMPLES * QUALITY_FIELDS) {
+    flushCallQuality(monitor, false);
+  }
+}
+
+function flushCallQuality(monitor, isFinal) {
+  const samples = monitor.buffer;
+  monitor.buffer = [];
+  if (samples.length === 0 && !isFinal) return Promise.resolve();
+
+  return window.Capacitor.Plugins.CallService.recordCallQuality({
+    callId: monitor.callId,
+    samples,
+    final: isFinal,
+  }).catch((error) => {
+    window.log("Failed to record call quality: " + error.message);
+  });
+}
+
+/**
+ * Starts sampling the session's peer connection. Android only; a no-op
+ * elsewhere or when the connection isn't available.
+ */
+window.startQualityMonitor = function (session) {
+  window.stopQualityMonitor();
+
+  const pc = session?.sessionDescriptionHandler?.peerConnection;
+  if (!pc || !isQualityStoreAvailable()) return;
+
+  const monitor = {
+    callId: `call-${Date.now()}`,
+    pc,
+    startedAt: performance.now(),
+    buffer: [],
+    last: { time: 0, packetsLost: 0, packetsReceived: 0, bytesReceived: 0 },
+    timer: null,
+    inFlight: null,
+  };
+  monitor.timer = setInterval(() => {
+    if (monitor.inFlight) return; // getStats() slower than the interval
+    monitor.inFlight = sampleCallQuality(monitor)
+      .catch((error) => {
+        console.error("Call quality sample failed:", error);
+      })
+      .finally(() => {
+        monitor.inFlight = null;
+      });
+  }, QUALITY_SAMPLE_INTERVAL_MS);
+
+  qualityMonitor = monitor;
+  window.log(`Call quality monitoring started (${monitor.callId})`);
+};
+
+/**
+ * Stops sampling, flushes remaining samples and persists the series.
+ * Returns the call quality ID to link from history, or null.
+ */
+window.stopQualityMonitor = function () {
+  const monitor = qualityMonitor;
+  if (!monitor) return null;
+  qualityMonitor = null;
+
+  clearInterval(monitor.timer);
+  // A sample still awaiting getStats() would otherwise land in the buffer
+  // after the final flush and be lost
+  Promise.resolve(monitor.inFlight).then(() => flushCallQuality(monitor, true));
+  return monitor.callId;
+};
+
+/**
+ * Loads a stored quality series and summarizes it.
+ * @returns {Promise<Object|null>} { count, stride, samples, avgRttMs, avgJitterMs, avgLossPct, avgBitrateKbps }
+ */
+window.getCallQuality = async function (callId) {
+  if (!isQualityStoreAvailable() || !callId) return null;
+
+  const result = await window.Capacitor.Plugins.CallService.getCallQuality({
+    callId,
+  });
+  const samples = result.samples || [];
+  const totals = [0, 0, 0, 0];
+  for (let i = 0; i < samples.length; i += QUALITY_FIELDS) {
+    for (let f = 0; f < 4; f++) {
+      totals[f] += samples[i + 1 + f];
+    }
+  }
+  const count = result.count || 0;
+  const avg = (f) => (count > 0 ? totals[f] / count : 0);
+
+  return {
+    count,
+    stride: result.stride,
+    samples,
+    avgRttMs: avg(0),
+    avgJitterMs: avg(1),
+    avgLossPct: avg(2),
+    avgBitrateKbps: avg(3),
+  };
+};
+
+/**
+ * Deletes stored quality series, e.g. when their history entries are
+ * cleared. Failures are logged and skipped.
+ */
+window.deleteCallQuality = async function (callIds) {
+  if (!isQualityStoreAvailable()) return;
+
+  for (const callId of callIds) {
+    if (!callId) continue;
+    try {
+      await window.Capacitor.Plugins.CallService.deleteCallQuality({ callId });
+    } catch (error) {
+      console.error(`Failed to delete call quality ${callId}:`, error);
+    }
+  }
+};
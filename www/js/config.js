@@ -11,6 +11,12 @@ window.DTMF_INTERTONE_GAP_MS = 100;
 window.SIP_REGISTRATION_EXPIRES_SEC = 180;
 window.USERNAME_LENGTH = 10;
 
+// Stop the call duration clock while a call is on hold (Android CallClock)
+window.CALL_DURATION_EXCLUDES_HOLD = false;
+
+// Add "Poor connection" to the ongoing call notification when the link degrades (Android)
+window.SHOW_POOR_CONNECTION_BADGE = true;
+
 // Application Version
 window.APP_VERSION = window.VOICETEL_VERSION || "3.5.6.2";
 
@@ -25,6 +31,8 @@ DTMF_DURATION_MS = window.DTMF_DURATION_MS;
 DTMF_INTERTONE_GAP_MS = window.DTMF_INTERTONE_GAP_MS;
 SIP_REGISTRATION_EXPIRES_SEC = window.SIP_REGISTRATION_EXPIRES_SEC;
 USERNAME_LENGTH = window.USERNAME_LENGTH;
+CALL_DURATION_EXCLUDES_HOLD = window.CALL_DURATION_EXCLUDES_HOLD;
+SHOW_POOR_CONNECTION_BADGE = window.SHOW_POOR_CONNECTION_BADGE;
 APP_VERSION = window.APP_VERSION;
 SIP_DOMAIN = window.SIP_DOMAIN;
 SIP_SERVER = window.SIP_SERVER;
@@ -210,6 +210,12 @@ window.setupEventHandlers = function () {
       });
     }
 
+    if (text.includes("Export Recordings")) {
+      btn.addEventListener("click", () => {
+        window.exportRecordings({ share: true });
+      });
+    }
+
     if (text.includes("Refresh") && btn.closest("#contactsSection")) {
       btn.addEventListener("click", () => {
         window.loadContacts();
@@ -15,6 +15,7 @@ window.isRegistered = false;
 window.isMuted = false;
 window.callTimer = null;
 window.callStartTime = null;
+window.linkQuality = null;
 window.ringingAudio = null;
 window.registrationPromise = null;
 window.unregistrationPromise = null;
@@ -2,6 +2,172 @@
 // HISTORY MODULE
 // ========================================
 
+// Maps recording filename -> history row index for the current render
+let summaryTargets = {};
+
+function formatRecordingDuration(durationMs) {
+	const totalSeconds = Math.round(durationMs / 1000);
+	const minutes = Math.floor(totalSeconds / 60);
+	const seconds = totalSeconds % 60;
+	return `${String(minutes).padStart(2, "0")}:${String(seconds).padStart(2, "0")}`;
+}
+
+function drawRecordingSummary(index, summary) {
+	const durationEl = document.getElementById(`history-duration-${index}`);
+	if (durationEl) {
+		durationEl.textContent = formatRecordingDuration(summary.durationMs);
+	}
+
+	const canvas = document.getElementById(`history-waveform-${index}`);
+	if (!canvas || !summary.peaks) return;
+
+	const peaks = atob(summary.peaks);
+	const ctx = canvas.getContext("2d");
+	const mid = canvas.height / 2;
+	const barWidth = canvas.width / Math.max(peaks.length, 1);
+
+	ctx.clearRect(0, 0, canvas.width, canvas.height);
+	ctx.fillStyle = "#007bff";
+	for (let i = 0; i < peaks.length; i++) {
+		const barHeight = Math.max(1, (peaks.charCodeAt(i) / 255) * canvas.height);
+		ctx.fillRect(i * barWidth, mid - barHeight / 2, Math.max(1, barWidth - 0.5), barHeight);
+	}
+}
+
+// Android only; elsewhere rows keep a plain <audio> player with metadata preload
+function hasRecordingSummaries() {
+	return !!(
+		window.Capacitor &&
+		window.Capacitor.isNativePlatform() &&
+		window.Capacitor.Plugins.CallService &&
+		window.Capacitor.Plugins.CallService.getRecordingSummaries
+	);
+}
+
+async function loadRecordingSummaries() {
+	const filenames = Object.keys(summaryTargets);
+	if (filenames.length === 0 || !hasRecordingSummaries()) return;
+
+	const CallService = window.Capacitor.Plugins.CallService;
+
+	// Summaries still being decoded arrive later through this event
+	if (!window.__recordingSummaryListener) {
+		window.__recordingSummaryListener = CallService.addListener(
+			"recordingSummaryReady",
+			(summary) => {
+				const index = summaryTargets[summary.filename];
+				if (index !== undefined) {
+					drawRecordingSummary(index, summary);
+				}
+			},
+		);
+	}
+
+	try {
+		const result = await CallService.getRecordingSummaries({ filenames });
+		const summaries = (result && result.summaries) || {};
+		for (const filename of filenames) {
+			const summary = summaries[filename];
+			if (summary && !summary.pending) {
+				drawRecordingSummary(summaryTargets[filename], summary);
+			}
+		}
+	} catch (error) {
+		console.error("Error loading recording summaries:", error);
+	}
+}
+
+async function loadHistoryRecording(audioEl, recordingFilename) {
+	try {
+		if (
+			window.Capacitor &&
+			window.Capacitor.isNativePlatform()
+		) {
+			const platform = getPlatform();
+
+			// Android: raw bytes over the binary audio channel when available
+			if (await window.getAudioChannel?.()) {
+				try {
+					const started = performance.now();
+					const { mimeType, data } =
+						await window.readRecordingBinary(recordingFilename);
+					const blobUrl = URL.createObjectURL(
+						new Blob([data], { type: mimeType }),
+					);
+					if (audioEl._oldBlobUrl) {
+						URL.revokeObjectURL(audioEl._oldBlobUrl);
+					}
+					audioEl._oldBlobUrl = blobUrl;
+					audioEl.src = blobUrl;
+					console.log(
+						`Recording loaded (binary): ${data.byteLength} bytes in ${Math.round(performance.now() - started)}ms`,
+					);
+					return;
+				} catch (error) {
+					console.error("Binary recording load failed, using base64:", error);
+				}
+			}
+
+			// Single path: CallService on all platforms
+			const { CallService } = window.Capacitor.Plugins;
+			if (!CallService)
+				throw new Error("CallService not available");
+
+			const result = await CallService.getRecordingFileUrl({
+				filename: recordingFilename,
+			});
+
+			if (result && result.url) {
+				// Convert data URL to blob URL for both platforms to avoid size limits
+				// This is more memory efficient and works better for long recordings
+				const match = result.url.match(
+					/^data:([^;]+);base64,(.+)$/,
+				);
+				if (match) {
+					const mimeType = match[1];
+					const base64Data = match[2];
+
+					// Decode base64 to binary
+					const bytes = atob(base64Data);
+					const arr = new Uint8Array(bytes.length);
+					for (let i = 0; i < bytes.length; i++) {
+						arr[i] = bytes.charCodeAt(i);
+					}
+
+					// Create blob URL (more efficient than data URLs for large files)
+					const blob = new Blob([arr], {
+						type: mimeType,
+					});
+					const blobUrl = URL.createObjectURL(blob);
+
+					// Clean up old blob URL if exists
+					if (audioEl._oldBlobUrl) {
+						URL.revokeObjectURL(audioEl._oldBlobUrl);
+					}
+					audioEl._oldBlobUrl = blobUrl;
+					audioEl.src = blobUrl;
+				} else {
+					// Fallback: use URL directly if not a data URL
+					audioEl.src = result.url;
+				}
+			}
+
+			audioEl.addEventListener(
+				"error",
+				(e) => {
+					console.error(
+						"Recording playback error:",
+						audioEl.error,
+					);
+				},
+				{ once: true },
+			);
+		}
+	} catch (error) {
+		console.error("Error loading recording:", error);
+	}
+}
+
 window.renderCallHistory = async function () {
 	const el = document.getElementById("callHistory");
 	if (!el) return;
@@ -18,6 +184,8 @@ window.renderCallHistory = async function () {
 	}
 
 	el.innerHTML = "";
+	summaryTargets = {};
+	const useSummaries = hasRecordingSummaries();
 	history.forEach((item, index) => {
 		let icon = "❓"; // Default for unknown
 		let callType = "Unknown";
@@ -58,9 +226,22 @@ window.renderCallHistory = async function () {
 						background: white;
 					`;
 
+		// Quality samples are stored natively; only fetched on request
+		const qualityHTML = item.qualityId
+			? `
+							<div style="margin-top: 4px; margin-left: 30px;">
+								<button class="quality-btn"
+									style="background: none; border: none; color: #007bff; cursor: pointer; font-size: 10px; padding: 0;">
+									📈 Call quality
+								</button>
+								<div class="quality-summary" style="font-size: 10px; color: #666; font-family: monospace;"></div>
+							</div>
+						`
+			: "";
+
 		// Create the history display HTML
 		let recordingHTML = "";
-		if (recordingFilename) {
+		if (recordingFilename && !useSummaries) {
 			recordingHTML = `
 							<div style="margin-top: 8px; margin-left: 30px;">
 								<audio
@@ -74,6 +255,36 @@ window.renderCallHistory = async function () {
 								</audio>
 							</div>
 						`;
+		} else if (recordingFilename) {
+			recordingHTML = `
+							<div style="margin-top: 8px; margin-left: 30px;">
+								<div
+									id="history-summary-${index}"
+									style="display: flex; align-items: center; gap: 8px; max-width: 350px; cursor: pointer;"
+								>
+									<span style="font-size: 14px;">▶️</span>
+									<canvas
+										id="history-waveform-${index}"
+										width="240"
+										height="28"
+										style="flex: 1; min-width: 0; height: 28px;"
+									></canvas>
+									<span
+										id="history-duration-${index}"
+										style="font-size: 10px; color: #666; font-family: monospace;"
+									>--:--</span>
+								</div>
+								<audio
+									id="history-recording-${index}"
+									controls
+									playsinline
+									style="display: none; width: 100%; max-width: 350px; height: 32px;"
+									preload="none"
+								>
+									Your browser does not support the audio element.
+								</audio>
+							</div>
+						`;
 		}
 
 		const historyHTML = `
@@ -93,6 +304,7 @@ window.renderCallHistory = async function () {
 							<div style="font-size: 10px; color: #666; margin-left: 30px;">
 								${timestamp}
 							</div>
+							${qualityHTML}
 							${recordingHTML}
 						</div>
 					`;
@@ -118,87 +330,72 @@ window.renderCallHistory = async function () {
 			});
 		}
 
-		el.appendChild(historyDiv);
-
-		// Load recording audio source if available
-		if (recordingFilename) {
-			setTimeout(async () => {
-				const audioEl = document.getElementById(
-					`history-recording-${index}`,
-				);
-				if (!audioEl) return;
-
+		const qualityBtn = historyDiv.querySelector(".quality-btn");
+		if (qualityBtn) {
+			qualityBtn.addEventListener("click", async (e) => {
+				e.stopPropagation();
+				const summaryEl = historyDiv.querySelector(".quality-summary");
 				try {
-					if (
-						window.Capacitor &&
-						window.Capacitor.isNativePlatform()
-					) {
-						const platform = getPlatform();
-
-						// Single path: CallService on all platforms
-						const { CallService } = window.Capacitor.Plugins;
-						if (!CallService)
-							throw new Error("CallService not available");
-
-						const result = await CallService.getRecordingFileUrl({
-							filename: recordingFilename,
-						});
-
-						if (result && result.url) {
-							// Convert data URL to blob URL for both platforms to avoid size limits
-							// This is more memory efficient and works better for long recordings
-							const match = result.url.match(
-								/^data:([^;]+);base64,(.+)$/,
-							);
-							if (match) {
-								const mimeType = match[1];
-								const base64Data = match[2];
-
-								// Decode base64 to binary
-								const bytes = atob(base64Data);
-								const arr = new Uint8Array(bytes.length);
-								for (let i = 0; i < bytes.length; i++) {
-									arr[i] = bytes.charCodeAt(i);
-								}
-
-								// Create blob URL (more efficient than data URLs for large files)
-								const blob = new Blob([arr], {
-									type: mimeType,
-								});
-								const blobUrl = URL.createObjectURL(blob);
-
-								// Clean up old blob URL if exists
-								if (audioEl._oldBlobUrl) {
-									URL.revokeObjectURL(audioEl._oldBlobUrl);
-								}
-								audioEl._oldBlobUrl = blobUrl;
-								audioEl.src = blobUrl;
-							} else {
-								// Fallback: use URL directly if not a data URL
-								audioEl.src = result.url;
-							}
-						}
-
-						audioEl.addEventListener(
-							"error",
-							(e) => {
-								console.error(
-									"Recording playback error:",
-									audioEl.error,
-								);
-							},
-							{ once: true },
-						);
-					}
+					const quality = await window.getCallQuality(item.qualityId);
+					summaryEl.textContent = quality
+						? `RTT ${Math.round(quality.avgRttMs)}ms · jitter ${quality.avgJitterMs.toFixed(1)}ms · loss ${quality.avgLossPct.toFixed(1)}% · ${Math.round(quality.avgBitrateKbps)} kbps (${quality.count} points)`
+						: "Not available on this device";
 				} catch (error) {
-					console.error("Error loading recording:", error);
+					summaryEl.textContent = "No quality data";
 				}
-			}, 100);
+			});
+		}
+
+		el.appendChild(historyDiv);
+
+		if (recordingFilename && !useSummaries) {
+			// No native summaries: load the player source up front so it shows duration
+			const audioEl = historyDiv.querySelector(`#history-recording-${index}`);
+			setTimeout(() => loadHistoryRecording(audioEl, recordingFilename), 0);
+		} else if (recordingFilename) {
+			// Recording audio is only fetched when the user asks to play it;
+			// duration and waveform come from the native summary cache
+			summaryTargets[recordingFilename] = index;
+
+			const summaryEl = historyDiv.querySelector(`#history-summary-${index}`);
+			const audioEl = historyDiv.querySelector(`#history-recording-${index}`);
+			summaryEl.addEventListener(
+				"click",
+				async () => {
+					await loadHistoryRecording(audioEl, recordingFilename);
+					summaryEl.style.display = "none";
+					audioEl.style.display = "block";
+					audioEl.play().catch(() => {});
+				},
+				{ once: true },
+			);
 		}
 	});
+
+	loadRecordingSummaries();
+};
+
+/**
+ * Frees the rendered history list (and any loaded recording blobs) while it
+ * is not on screen; it is rebuilt by renderCallHistory() when shown again.
+ */
+window.releaseHistoryView = function () {
+	const el = document.getElementById("callHistory");
+	if (!el || !el.firstChild) return;
+
+	el.querySelectorAll("audio").forEach((audioEl) => {
+		if (audioEl._oldBlobUrl) {
+			URL.revokeObjectURL(audioEl._oldBlobUrl);
+			audioEl._oldBlobUrl = null;
+		}
+	});
+	el.innerHTML = "";
+	summaryTargets = {};
 };
 
 window.clearHistory = async function () {
+	const history = await window.Storage.getHistory();
+	await window.deleteCallQuality(history.map((item) => item.qualityId));
 	await window.Storage.clearHistory();
 	window.renderCallHistory();
 };
@@ -268,6 +465,47 @@ window.clearRecordings = async function () {
 	}
 };
 
+/**
+ * Export recordings as a single ZIP (streamed natively, constant memory).
+ * options: { from, to, limit, filenames, share } - with no selection all
+ * recordings are exported.
+ */
+window.exportRecordings = async function (options = {}) {
+	if (
+		!window.Capacitor ||
+		!window.Capacitor.isNativePlatform() ||
+		!window.Capacitor.Plugins.CallService ||
+		!window.Capacitor.Plugins.CallService.exportRecordings
+	) {
+		window.log("Recording export is not available on this platform");
+		return null;
+	}
+
+	const CallService = window.Capacitor.Plugins.CallService;
+	const progressListener = await CallService.addListener(
+		"exportProgress",
+		(progress) => {
+			const percent = progress.bytesTotal
+				? Math.round((progress.bytesDone / progress.bytesTotal) * 100)
+				: 100;
+			window.log(
+				`Exporting recordings: ${progress.filesDone}/${progress.filesTotal} files (${percent}%)`,
+			);
+		},
+	);
+
+	try {
+		const result = await CallService.exportRecordings(options);
+		window.log(`✅ Exported ${result.fileCount} recordings`);
+		return result.uri;
+	} catch (error) {
+		window.log(`❌ Failed to export recordings: ${error.message}`);
+		return null;
+	} finally {
+		progressListener.remove();
+	}
+};
+
 window.redial = function (num) {
 	try {
 		document.getElementById("callNumber").value = (num || "").replace(
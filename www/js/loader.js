@@ -1,7 +1,10 @@
 // ========================================
 // MODULE LOADER
 // ========================================
-// Dynamically loads all JavaScript modules in the correct dependency order
+// Dynamically loads all JavaScript modules in the correct dependency order.
+// On Android the modules are also prebuilt into one bundle (bundleWebModules
+// Gradle task) that MainActivity serves straight from the APK; that is tried
+// first, and the individual modules are the fallback.
 
 (function () {
   "use strict";
@@ -18,6 +21,7 @@
     "js/native-integration.js",
     "js/recording.js",
     "js/call-controls.js",
+    "js/call-quality.js",
     "js/contacts.js",
     "js/history.js",
     "js/sip-manager.js",
@@ -26,8 +30,25 @@
     "js/app.js",
   ];
 
+  // Stable URL for the concatenated modules; see ModuleBundleHandler.java
+  const bundle = "js/modules.bundle.js";
+  const useBundle = window.Capacitor?.getPlatform?.() === "android";
+
   let loadedCount = 0;
 
+  /**
+   * Start fetching scripts now, while the rest of the page is still parsing
+   */
+  function preload(sources) {
+    for (const src of sources) {
+      const link = document.createElement("link");
+      link.rel = "preload";
+      link.as = "script";
+      link.href = src;
+      document.head.appendChild(link);
+    }
+  }
+
   /**
    * Load a script dynamically
    */
@@ -36,10 +57,7 @@
       const script = document.createElement("script");
       script.src = src;
       script.async = false; // Maintain order
-      script.onload = () => {
-        loadedCount++;
-        resolve();
-      };
+      script.onload = () => resolve();
       script.onerror = () => {
         console.error(`Failed to load: ${src}`);
         reject(new Error(`Failed to load script: ${src}`));
@@ -49,13 +67,38 @@
   }
 
   /**
-   * Load all modules sequentially
+   * Load all modules, fetching in parallel but executing in order
    */
   async function loadModules() {
     try {
-      // Load modules sequentially to maintain dependency order
-      for (const module of modules) {
-        await loadScript(module);
+      let bundled = false;
+      if (useBundle) {
+        try {
+          await loadScript(bundle);
+        } catch (error) {
+          // Fall through to the individual modules
+        }
+        // onload fires even when the bundle fails to parse, in which case
+        // none of it ran. Once it parses, every module has run (each in its
+        // own try/catch) and the last line has set the count.
+        const bundledCount = window.__moduleBundleLoaded;
+        delete window.__moduleBundleLoaded;
+        if (typeof bundledCount === "number") {
+          bundled = true;
+          loadedCount = bundledCount;
+          if (bundledCount !== modules.length) {
+            console.warn(`Module bundle has ${bundledCount} of ${modules.length} modules`);
+          }
+        } else {
+          console.warn("Module bundle unavailable, loading modules individually");
+        }
+      }
+
+      if (!bundled) {
+        // async=false scripts download in parallel and still run in insertion order
+        await Promise.all(
+          modules.map((src) => loadScript(src).then(() => loadedCount++)),
+        );
       }
 
       // Verify critical components loaded
@@ -72,6 +115,8 @@
     }
   }
 
+  preload(useBundle ? [bundle] : modules);
+
   // Start loading when DOM is ready
   if (document.readyState === "loading") {
     document.addEventListener("DOMContentLoaded", loadModules);
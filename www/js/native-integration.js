@@ -13,6 +13,8 @@ window.startCallService = async function (callNumber) {
       const CallService = window.Capacitor.Plugins.CallService;
       await CallService.startCall({
         callNumber: callNumber || "",
+        excludeHoldTime: window.CALL_DURATION_EXCLUDES_HOLD,
+        showPoorConnection: window.SHOW_POOR_CONNECTION_BADGE,
       });
       window.log("Android call service started");
     }
@@ -22,6 +24,28 @@ window.startCallService = async function (callNumber) {
   }
 };
 
+/**
+ * Subscribes to native link-quality changes (Android). The latest event is
+ * kept in window.linkQuality and re-dispatched as a "linkquality" DOM event
+ * for anything that adapts to it (e.g. bitrate decisions).
+ */
+window.setupLinkQualityListener = function () {
+  const CallService = window.Capacitor?.Plugins?.CallService;
+  if (window.getPlatform() !== "android" || !CallService) return;
+
+  CallService.addListener("linkQuality", (data) => {
+    window.linkQuality = data;
+    if (data.poor) {
+      window.log(
+        `⚠️ Poor connection (${data.reason}) on ${data.transport}: rx ${data.rxKbps} kbps, est. ${data.downstreamKbps} kbps down`,
+      );
+    } else {
+      window.log(`✅ Connection recovered on ${data.transport}`);
+    }
+    window.dispatchEvent(new CustomEvent("linkquality", { detail: data }));
+  });
+};
+
 window.stopCallService = async function () {
   try {
     // Only for Android - iOS handles CallKit separately in endCall()
@@ -129,6 +153,50 @@ window.dismissIncomingCallNotification = async function () {
   }
 };
 
+// ========================================
+// PENDING NATIVE INCOMING CALL (Android)
+// ========================================
+// When a call is rung natively before the page has loaded (cold start), the
+// native side remembers it along with any Answer/Decline tap made while we
+// were starting. It is replayed onto the matching INVITE in handleIncomingCall.
+
+window.loadPendingNativeCall = async function () {
+  const CallService = window.Capacitor?.Plugins?.CallService;
+  if (
+    window.getPlatform() !== "android" ||
+    !CallService?.consumePendingIncomingCall
+  ) {
+    return;
+  }
+
+  try {
+    const result = await CallService.consumePendingIncomingCall();
+    if (!result.pending) {
+      return;
+    }
+    window.__pendingNativeCall = {
+      callerName: result.callerName,
+      callerNumber: result.callerNumber,
+      state: result.state,
+      expiresAt: Date.now() + Math.max(0, INCOMING_CALL_TIMEOUT_MS - result.ageMs),
+    };
+    window.log(
+      `Pending native incoming call from ${result.callerNumber} (${result.state}, ${result.ageMs}ms old)`,
+    );
+  } catch (error) {
+    window.log("Failed to load pending native call: " + error.message);
+  }
+};
+
+window.takePendingNativeCall = function () {
+  const pending = window.__pendingNativeCall;
+  window.__pendingNativeCall = null;
+  if (!pending || Date.now() > pending.expiresAt) {
+    return null;
+  }
+  return pending;
+};
+
 window.reportCallConnected = async function (isOutgoing = false) {
   try {
     if (
@@ -159,6 +227,157 @@ window.reportCallConnected = async function (isOutgoing = false) {
   }
 };
 
+// ========================================
+// BINARY AUDIO CHANNEL (Android)
+// ========================================
+// Moves recording bytes over a WebMessagePort as ArrayBuffers instead of
+// base64 strings. Frame layout matches AudioMessageChannel.java.
+
+const AUDIO_OP_SAVE = 0x01;
+const AUDIO_OP_READ = 0x02;
+const AUDIO_OP_SAVE_OK = 0x81;
+const AUDIO_OP_READ_OK = 0x82;
+
+let audioChannelPromise = null;
+let audioChannelNextId = 1;
+const audioChannelPending = new Map();
+
+function handleAudioChannelMessage(event) {
+  const view = new DataView(event.data);
+  const op = view.getUint8(0);
+  const requestId = view.getUint32(1);
+  const textLength = view.getUint16(5);
+  const text = new TextDecoder().decode(
+    new Uint8Array(event.data, 7, textLength),
+  );
+  const payload = event.data.slice(7 + textLength);
+
+  const pending = audioChannelPending.get(requestId);
+  if (!pending) return;
+  audioChannelPending.delete(requestId);
+
+  if (op === AUDIO_OP_SAVE_OK) {
+    pending.resolve({ filePath: text });
+  } else if (op === AUDIO_OP_READ_OK) {
+    pending.resolve({ mimeType: text, data: payload });
+  } else {
+    pending.reject(new Error(text));
+  }
+}
+
+/**
+ * Resolves to the binary audio port, or null when unsupported (iOS, web,
+ * or an old Android WebView) so callers can fall back to base64.
+ */
+window.getAudioChannel = function () {
+  if (audioChannelPromise) return audioChannelPromise;
+
+  const CallService = window.Capacitor?.Plugins?.CallService;
+  if (
+    window.getPlatform() !== "android" ||
+    !CallService ||
+    !CallService.openAudioChannel
+  ) {
+    return Promise.resolve(null);
+  }
+
+  audioChannelPromise = new Promise((resolve) => {
+    const onPort = (event) => {
+      if (event.data !== "voicetel-audio-port" || !event.ports[0]) return;
+      window.removeEventListener("message", onPort);
+      const port = event.ports[0];
+      port.onmessage = handleAudioChannelMessage;
+      window.log("Binary audio channel ready");
+      resolve(port);
+    };
+    window.addEventListener("message", onPort);
+
+    // Never block recording save/playback on a port that doesn't arrive
+    setTimeout(() => {
+      window.removeEventListener("message", onPort);
+      resolve(null);
+    }, 2000);
+
+    CallService.openAudioChannel()
+      .then((result) => {
+        if (!result.supported) {
+          window.removeEventListener("message", onPort);
+          resolve(null);
+        }
+      })
+      .catch(() => {
+        window.removeEventListener("message", onPort);
+        resolve(null);
+      });
+  });
+
+  return audioChannelPromise;
+};
+
+/**
+ * Closes the binary audio port; the next getAudioChannel() reopens it.
+ * Native closes its end under memory pressure at the same time.
+ */
+window.releaseAudioChannel = async function () {
+  if (!audioChannelPromise) return;
+  const port = await audioChannelPromise;
+  audioChannelPromise = null;
+  if (port) {
+    port.close();
+  }
+  audioChannelPending.forEach((pending) =>
+    pending.reject(new Error("Binary audio channel closed")),
+  );
+  audioChannelPending.clear();
+};
+
+window.audioChannelRequest = async function (op, filename, mimeType, data) {
+  const port = await window.getAudioChannel();
+  if (!port) throw new Error("Binary audio channel not available");
+
+  const encoder = new TextEncoder();
+  const nameBytes = encoder.encode(filename);
+  const mimeBytes = encoder.encode(mimeType || "");
+  const payload = data ? new Uint8Array(data) : new Uint8Array(0);
+
+  const frame = new ArrayBuffer(
+    1 + 4 + 2 + nameBytes.length + 2 + mimeBytes.length + payload.length,
+  );
+  const view = new DataView(frame);
+  const bytes = new Uint8Array(frame);
+  const requestId = audioChannelNextId++;
+  let offset = 0;
+
+  view.setUint8(offset, op);
+  view.setUint32(offset + 1, requestId);
+  offset += 5;
+  view.setUint16(offset, nameBytes.length);
+  bytes.set(nameBytes, offset + 2);
+  offset += 2 + nameBytes.length;
+  view.setUint16(offset, mimeBytes.length);
+  bytes.set(mimeBytes, offset + 2);
+  offset += 2 + mimeBytes.length;
+  bytes.set(payload, offset);
+
+  return new Promise((resolve, reject) => {
+    audioChannelPending.set(requestId, { resolve, reject });
+    port.postMessage(frame, [frame]);
+  });
+};
+
+window.saveRecordingBinary = function (filename, mimeType, arrayBuffer) {
+  return window.audioChannelRequest(
+    AUDIO_OP_SAVE,
+    filename,
+    mimeType,
+    arrayBuffer,
+  );
+};
+
+window.readRecordingBinary = function (filename) {
+  return window.audioChannelRequest(AUDIO_OP_READ, filename, null, null);
+};
+
 window.setupAppStateListeners = function () {
   window.log("Setting up app state listeners...");
 
@@ -233,6 +452,9 @@ window.handleNotificationAction = function (action, data) {
     window.__callKitAnswered = true; // Flag to prevent duplicate notifications
     if (window.incomingSession) {
       window.answerCall();
+    } else if (window.__pendingNativeCall) {
+      window.log("Answer recorded - waiting for INVITE of pending native call");
+      window.__pendingNativeCall.state = "answered";
     } else {
       window.log("No incoming call to answer");
     }
@@ -250,6 +472,9 @@ window.handleNotificationAction = function (action, data) {
       window.__hangupFromCallKit = true;
       window.hangup();
       window.__hangupFromCallKit = false;
+    } else if (window.__pendingNativeCall) {
+      window.log("Decline recorded - waiting for INVITE of pending native call");
+      window.__pendingNativeCall.state = "declined";
     } else {
       window.log("No call to decline/cancel");
     }
@@ -455,3 +680,40 @@ window.handleNotificationAction = function (action, data) {
     }
   }
 };
+
+// ========================================
+// MEMORY PRESSURE (Android)
+// ========================================
+
+const MEMORY_TIER_LIGHT = 1;
+const MEMORY_TIER_MODERATE = 2;
+
+function isSectionVisible(id) {
+  const section = document.getElementById(id);
+  return !!section && section.classList.contains("visible");
+}
+
+/**
+ * Called by MainActivity.onTrimMemory. The tier (1 light, 2 moderate,
+ * 3 severe) is derived natively from the trim level. Nothing the active
+ * call depends on is dropped while inCall is true.
+ */
+window.handleMemoryPressure = function (level, tier, inCall) {
+  window.log(
+    `Memory pressure: level ${level}, tier ${tier}${inCall ? " (in call)" : ""}`,
+  );
+
+  // The event log is already capped by window.log(); it is never trimmed here
+  if (tier >= MEMORY_TIER_LIGHT && !isSectionVisible("historySection")) {
+    window.releaseHistoryView();
+  }
+
+  if (tier >= MEMORY_TIER_MODERATE && !inCall) {
+    if (!isSectionVisible("contactsSection") && window.contactsList.length) {
+      window.contactsList = [];
+      window.renderContacts();
+      window.log("Contacts released - reload to view them again");
+    }
+    window.releaseAudioChannel();
+  }
+};
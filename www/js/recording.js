@@ -106,21 +106,45 @@ window.startRecording = async function () {
 
     mediaRecorder.onstop = async () => {
       const blob = new Blob(window.recordedChunks, { type: mimeType });
+      const { callerNumber } = getCallerInfo();
+      const callTimestamp = window.recordingCallStartTime
+        ? new Date(window.recordingCallStartTime).toISOString()
+        : new Date().toISOString();
+      const filename = `recording_${callTimestamp.replace(/:/g, "-").replace(/\./g, "-")}_${callerNumber}`;
+
+      // Preferred path: raw bytes over the binary audio channel (no base64)
+      if (await window.getAudioChannel?.()) {
+        try {
+          const started = performance.now();
+          await window.saveRecordingBinary(
+            filename,
+            mimeType,
+            await blob.arrayBuffer(),
+          );
+          window.log(
+            `✅ Recording saved: ${filename} (${blob.size} bytes, binary, ${Math.round(performance.now() - started)}ms)`,
+          );
+          window.currentRecordingFilename = filename;
+          window.recordedChunks = [];
+          return;
+        } catch (e) {
+          window.log(
+            `⚠️ Binary save failed, falling back to base64: ${e.message}`,
+          );
+        }
+      }
+
       const reader = new FileReader();
 
       reader.onloadend = async () => {
         const base64String = reader.result.split(",")[1];
-        const { callerNumber } = getCallerInfo();
-        const callTimestamp = window.recordingCallStartTime
-          ? new Date(window.recordingCallStartTime).toISOString()
-          : new Date().toISOString();
-        const filename = `recording_${callTimestamp.replace(/:/g, "-").replace(/\./g, "-")}_${callerNumber}`;
 
         if (
           window.Capacitor?.isNativePlatform?.() &&
           window.Capacitor?.Plugins?.CallService
         ) {
           try {
+            const started = performance.now();
             const result =
               await window.Capacitor.Plugins.CallService.saveRecording({
                 filename,
@@ -128,7 +152,9 @@ window.startRecording = async function () {
                 mimeType,
               });
             if (result.success) {
-              window.log(`✅ Recording saved: ${result.filename}`);
+              window.log(
+                `✅ Recording saved: ${result.filename} (${blob.size} bytes, base64, ${Math.round(performance.now() - started)}ms)`,
+              );
               window.currentRecordingFilename = result.filename;
             }
           } catch (e) {
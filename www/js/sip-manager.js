@@ -52,6 +52,12 @@ window.register = async function() {
 					return Promise.reject(new Error("Invalid username"));
 				}
 
+				// Pick up a call that was rung natively while the app was starting
+				// (see IncomingCallNotifier) before its INVITE can arrive
+				if (window.loadPendingNativeCall) {
+					await window.loadPendingNativeCall();
+				}
+
 				// Create and store the registration promise
 				window.registrationPromise = new Promise((resolve, reject) => {
 					window.registeredUsername = username;
@@ -151,8 +151,15 @@ window.Storage = {
    * @param {string} number - Phone number
    * @param {string} duration - Call duration
    * @param {string} recording - Recording filename (optional)
+   * @param {string} qualityId - Native call quality series ID (optional)
    */
-  async addCallToHistory(type, number, duration, recording = null) {
+  async addCallToHistory(
+    type,
+    number,
+    duration,
+    recording = null,
+    qualityId = null,
+  ) {
     try {
       const history = (await localforage.getItem(this.HISTORY_KEY)) || [];
       const newEntry = {
@@ -161,6 +168,7 @@ window.Storage = {
         duration,
         timestamp: new Date().toISOString(),
         recording: recording || null,
+        qualityId: qualityId || null,
       };
       history.unshift(newEntry);
 
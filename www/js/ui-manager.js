@@ -228,7 +228,9 @@ window.clearAllData = async function () {
     if (el) el.checked = false;
   });
 
-  // Clear storage
+  // Clear storage, including the native quality series linked from history
+  const history = await window.Storage.getHistory();
+  await window.deleteCallQuality(history.map((item) => item.qualityId));
   await window.Storage.clearAll();
 
   // Refresh call history display